@@ -1,7 +1,7 @@
 import React, { useState } from 'react';
 import { useAdminAuth } from './AdminAuthContext';
 import { useQuery } from '@tanstack/react-query';
-import api from '../utils/api';
+import api, { getAllPages } from '../utils/api';
 import { format } from 'date-fns';
 import {
   ChartBarIcon,
@@ -35,8 +35,7 @@ const AdminBidsPage = () => {
     queryKey: ['bids', admin?.token],
     queryFn: async () => {
       if (!admin?.token) return [];
-      const res = await api.get('/bids');
-      return res.data;
+      return getAllPages('/bids');
     },
     enabled: !!admin?.token
   });
@@ -1,6 +1,6 @@
 import React, { useState, useMemo } from 'react';
 import { useQuery } from '@tanstack/react-query';
-import api from '../utils/api';
+import api, { getAllPages } from '../utils/api';
 import { UserGroupIcon, CurrencyDollarIcon, ChartBarIcon, CubeIcon, ClockIcon, TagIcon, TrophyIcon } from '@heroicons/react/24/outline';
 import { motion } from 'framer-motion';
 import { LineChart, Line, XAxis, YAxis, Tooltip, ResponsiveContainer, CartesianGrid, Legend } from 'recharts';
@@ -43,10 +43,7 @@ const AdminDashboard = () => {
   // Auction results (for revenue & recent activity)
   const { data: auctionResults = [] } = useQuery({
     queryKey: ['auctionResults'],
-    queryFn: async () => {
-      const res = await api.get('/auction-results');
-      return res.data;
-    }
+    queryFn: () => getAllPages('/auction-results')
   });
 
   // New query for bid history with proper error handling
@@ -58,9 +55,9 @@ const AdminDashboard = () => {
     queryKey: ['bidHistory'],
     queryFn: async () => {
       try {
-        const res = await api.get('/bids/history');
-        console.log('Bid History Response:', res.data);
-        return res.data;
+        const history = await getAllPages('/bids/history');
+        console.log('Bid History Response:', history);
+        return history;
       } catch (error) {
         console.error('Error fetching bid history:', error);
         throw error;
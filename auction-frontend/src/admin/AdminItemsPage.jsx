@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import api from '../utils/api';
+import api, { getAllPages } from '../utils/api';
 import { useAdminAuth } from './AdminAuthContext';
 
 const statusOptions = ['DRAFT', 'ACTIVE', 'ENDED', 'SOLD'];
@@ -33,11 +33,11 @@ const AdminItemsPage = () => {
       setLoading(true);
       setError(null);
       try {
-        const [itemsRes, categoriesRes] = await Promise.all([
-          api.get('/items'),
+        const [allItems, categoriesRes] = await Promise.all([
+          getAllPages('/items'),
           api.get('/categories')
         ]);
-        setItems(itemsRes.data);
+        setItems(allItems);
         setCategories(categoriesRes.data);
       } catch (err) {
         setError('Failed to load items or categories.');
@@ -165,8 +165,7 @@ const AdminItemsPage = () => {
         await api.post('/items', payload);
       }
       // Refresh items
-      const res = await api.get('/items');
-      setItems(res.data);
+      setItems(await getAllPages('/items'));
       setShowModal(false);
     } catch (err) {
       console.error('Error saving item:', err);
@@ -1,7 +1,7 @@
 import React, { useState } from 'react';
 import { useAdminAuth } from './AdminAuthContext';
 import { useQuery } from '@tanstack/react-query';
-import api from '../utils/api';
+import { getAllPages } from '../utils/api';
 
 const AdminResultsPage = () => {
   const { admin } = useAdminAuth();
@@ -22,8 +22,7 @@ const AdminResultsPage = () => {
         order: sortOrder,
         status: filterStatus !== 'all' ? filterStatus : undefined
       };
-      const res = await api.get('/auction-results', { params });
-      return res.data;
+      return getAllPages('/auction-results', { params });
     },
     enabled: !!admin?.token
   });
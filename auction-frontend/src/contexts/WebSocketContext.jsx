@@ -2,34 +2,104 @@ import { createContext, useContext, useEffect, useRef, useCallback, useState } f
 import SockJS from 'sockjs-client';
 import { Client } from '@stomp/stompjs';
 import { toast } from 'react-hot-toast';
+import { useAuth } from '../utils/auth';
 
 const WebSocketContext = createContext(null);
 
+// Bids rejected by the server are reported to the sending session only
+const ERRORS_DESTINATION = '/user/queue/errors';
+
 export const WebSocketProvider = ({ children }) => {
   const stompClient = useRef(null);
   const reconnectAttempts = useRef(0);
   const maxReconnectAttempts = 5;
   const reconnectDelay = 3000; // 3 seconds
   const [isConnected, setIsConnected] = useState(false);
-  const pendingSubscriptions = useRef([]);
-  const isConnecting = useRef(false);
+  // Every destination the app wants, so subscriptions survive a reconnect
+  const handlers = useRef(new Map());
   const activeSubscriptions = useRef(new Map());
+  // Per item: the last itemBidId delivered, and live frames held while a replay is outstanding
+  const itemStreams = useRef(new Map());
+  const { user } = useAuth();
+  const token = user?.token || localStorage.getItem('token');
+  const connectedToken = useRef(null);
 
   // Get WebSocket URL from environment variable
   const wsUrl = import.meta.env.VITE_WS_URL || 'http://localhost:8080';
 
+  const subscribeNow = useCallback((destination, callback) => {
+    const subscription = stompClient.current.subscribe(destination, (message) => {
+      try {
+        const data = JSON.parse(message.body);
+        callback(data);
+      } catch (error) {
+        console.error(`Error in subscription handler for ${destination}:`, error);
+      }
+    });
+    activeSubscriptions.current.set(destination, subscription);
+  }, []);
+
+  const deliverItemBid = useCallback((stream, bid) => {
+    if (bid.itemBidId != null) {
+      if (stream.last != null && bid.itemBidId <= stream.last) {
+        return;
+      }
+      stream.last = bid.itemBidId;
+    }
+    stream.callback?.(bid);
+  }, []);
+
+  // Asks for the frames missed since the last one delivered. Live frames wait until
+  // the reply is in, otherwise they would raise the sequence past the missed ones.
+  const replayItem = useCallback((itemId) => {
+    const stream = itemStreams.current.get(itemId);
+    if (!stream?.callback || stream.last == null || !stompClient.current?.connected) {
+      return;
+    }
+    stream.held = [];
+    const replay = stompClient.current.subscribe(`/app/bid/${itemId}/since/${stream.last}`, (message) => {
+      replay.unsubscribe();
+      if (stream.replay !== replay) {
+        return;
+      }
+      stream.replay = null;
+      try {
+        const missed = JSON.parse(message.body);
+        if (missed.snapshot) {
+          deliverItemBid(stream, missed.snapshot);
+        }
+        missed.bids.forEach((bid) => deliverItemBid(stream, bid));
+      } catch (error) {
+        console.error(`Error replaying bids for item ${itemId}:`, error);
+      }
+      const live = stream.held;
+      stream.held = null;
+      live.forEach((bid) => deliverItemBid(stream, bid));
+    });
+    stream.replay = replay;
+  }, [deliverItemBid]);
+
+  const showError = useCallback((error) => {
+    console.warn('Rejected by server:', error);
+    toast.error(error?.error || 'Your bid was not accepted. Please try again.');
+  }, []);
+
   const connect = useCallback(() => {
-    if (stompClient.current?.connected || isConnecting.current) {
-      console.log('WebSocket already connected or connecting');
+    if (stompClient.current) {
       return;
     }
 
     try {
-      isConnecting.current = true;
       console.log('Opening Web Socket...');
-      const socket = new SockJS(`${wsUrl}/ws`);
-      stompClient.current = new Client({
-        webSocketFactory: () => socket,
+      const client = new Client({
+        // A fresh socket per attempt, so automatic reconnects work
+        webSocketFactory: () => new SockJS(`${wsUrl}/ws`),
+        // The server takes the bidder from the token sent on CONNECT
+        beforeConnect: () => {
+          const current = localStorage.getItem('token');
+          client.connectHeaders = current ? { Authorization: `Bearer ${current}` } : {};
+          connectedToken.current = current;
+        },
         debug: (str) => {
           console.log(str);
         },
@@ -39,113 +109,101 @@ export const WebSocketProvider = ({ children }) => {
         onStompError: (frame) => {
           console.error('STOMP error:', frame);
           setIsConnected(false);
-          isConnecting.current = false;
-      if (reconnectAttempts.current < maxReconnectAttempts) {
-        reconnectAttempts.current += 1;
-        const delay = reconnectDelay * reconnectAttempts.current;
-        console.log(`Attempting to reconnect in ${delay / 1000} seconds...`);
-        toast.error(`Connection lost. Reconnecting in ${delay / 1000} seconds...`);
-            setTimeout(connect, delay);
-      } else {
-        console.error('Max reconnection attempts reached');
-        toast.error('Failed to connect to real-time updates. Please refresh the page.');
+          if (reconnectAttempts.current < maxReconnectAttempts) {
+            reconnectAttempts.current += 1;
+            toast.error(frame.headers?.message || 'Connection lost. Reconnecting...');
+          } else {
+            console.error('Max reconnection attempts reached');
+            toast.error('Failed to connect to real-time updates. Please refresh the page.');
+            client.deactivate();
           }
         },
         onConnect: () => {
           console.log('WebSocket connected');
           setIsConnected(true);
-          isConnecting.current = false;
           reconnectAttempts.current = 0;
-          toast.success('Connected to real-time updates');
 
-          // Process any pending subscriptions
-          pendingSubscriptions.current.forEach(({ destination, callback }) => {
+          subscribeNow(ERRORS_DESTINATION, showError);
+          handlers.current.forEach((callback, destination) => {
             try {
-              const subscription = stompClient.current.subscribe(destination, (message) => {
-                try {
-                  const data = JSON.parse(message.body);
-                  callback(data);
-                } catch (error) {
-                  console.error(`Error in subscription handler for ${destination}:`, error);
-                }
-              });
-              activeSubscriptions.current.set(destination, subscription);
-              pendingSubscriptions.current = pendingSubscriptions.current.filter(
-                sub => sub.destination !== destination
-              );
+              subscribeNow(destination, callback);
             } catch (error) {
               console.error(`Error subscribing to ${destination}:`, error);
             }
           });
+          itemStreams.current.forEach((stream, itemId) => replayItem(itemId));
+        },
+        onWebSocketClose: () => {
+          setIsConnected(false);
+          // The server dropped them with the session; onConnect subscribes again
+          activeSubscriptions.current.clear();
+          // Held frames were never delivered, so the replay after reconnecting covers them
+          itemStreams.current.forEach((stream) => {
+            stream.replay = null;
+            stream.held = null;
+          });
         },
         onDisconnect: () => {
           console.log('WebSocket disconnected');
           setIsConnected(false);
-          isConnecting.current = false;
-          // Clear active subscriptions on disconnect
           activeSubscriptions.current.clear();
         },
       });
 
-      stompClient.current.activate();
+      stompClient.current = client;
+      client.activate();
     } catch (error) {
       console.error('Error initializing WebSocket:', error);
       toast.error('Failed to initialize WebSocket connection');
       setIsConnected(false);
-      isConnecting.current = false;
+      stompClient.current = null;
     }
-  }, []);
+  }, [subscribeNow, showError, replayItem]);
 
   useEffect(() => {
     connect();
     return () => {
-      if (stompClient.current?.connected) {
-        stompClient.current.deactivate();
-      }
+      stompClient.current?.deactivate();
+      stompClient.current = null;
     };
   }, [connect]);
 
-  const subscribeToBidUpdates = useCallback((callback) => {
-    const destination = '/topic/bidUpdates';
-    
-    if (!stompClient.current?.connected) {
-      console.log('WebSocket not connected, adding to pending subscriptions');
-      pendingSubscriptions.current.push({ destination, callback });
-      return () => {
-        pendingSubscriptions.current = pendingSubscriptions.current.filter(
-          sub => sub.destination !== destination
-        );
-      };
+  // Logging in or out changes who the session bids as, which is only read on CONNECT
+  useEffect(() => {
+    const client = stompClient.current;
+    if (client?.connected && (token || null) !== connectedToken.current) {
+      client.deactivate().then(() => client.activate());
     }
-    
-    try {
-      // Unsubscribe if already subscribed
+  }, [token]);
+
+  const subscribe = useCallback((destination, callback) => {
+    handlers.current.set(destination, callback);
+    if (stompClient.current?.connected) {
+      try {
+        // Replace an earlier subscription to the same destination
+        activeSubscriptions.current.get(destination)?.unsubscribe();
+        subscribeNow(destination, callback);
+      } catch (error) {
+        console.error(`Error subscribing to ${destination}:`, error);
+      }
+    } else {
+      console.log('WebSocket not connected, subscribing once connected');
+    }
+    return () => {
+      if (handlers.current.get(destination) !== callback) {
+        return;
+      }
+      handlers.current.delete(destination);
       if (activeSubscriptions.current.has(destination)) {
         activeSubscriptions.current.get(destination).unsubscribe();
         activeSubscriptions.current.delete(destination);
       }
+    };
+  }, [subscribeNow]);
 
-      const subscription = stompClient.current.subscribe(destination, (message) => {
-        try {
-          const data = JSON.parse(message.body);
-        callback(data);
-      } catch (error) {
-        console.error('Error in bid update handler:', error);
-      }
-      });
-      
-      activeSubscriptions.current.set(destination, subscription);
-      return () => {
-        if (activeSubscriptions.current.has(destination)) {
-          activeSubscriptions.current.get(destination).unsubscribe();
-          activeSubscriptions.current.delete(destination);
-        }
-      };
-    } catch (error) {
-      console.error('Error subscribing to bid updates:', error);
-      return () => {};
-    }
-  }, []);
+  const subscribeToBidUpdates = useCallback((callback) => {
+    return subscribe('/topic/bidUpdates', callback);
+  }, [subscribe]);
 
   const subscribeToItemBidUpdates = useCallback((itemId, callback) => {
     if (!itemId) {
@@ -159,57 +217,56 @@ export const WebSocketProvider = ({ children }) => {
       console.warn('Invalid itemId format:', itemId);
       return () => {};
     }
-    
-    const destination = `/topic/bid/${validItemId}`;
+
     console.log(`Subscribing to bid updates for item ${validItemId}`);
-    
-    if (!stompClient.current?.connected) {
-      console.log('WebSocket not connected, adding to pending subscriptions');
-      pendingSubscriptions.current.push({ destination, callback });
-      return () => {
-        pendingSubscriptions.current = pendingSubscriptions.current.filter(
-          sub => sub.destination !== destination
-        );
-      };
+    // The sequence outlives the subscription, so subscribing again only replays what was missed
+    let stream = itemStreams.current.get(validItemId);
+    if (!stream) {
+      stream = { last: null, held: null, replay: null, callback: null };
+      itemStreams.current.set(validItemId, stream);
     }
-    
-    try {
-      // Unsubscribe if already subscribed
-      if (activeSubscriptions.current.has(destination)) {
-        activeSubscriptions.current.get(destination).unsubscribe();
-        activeSubscriptions.current.delete(destination);
+    stream.callback = callback;
+    const unsubscribe = subscribe(`/topic/bid/${validItemId}`, (data) => {
+      console.log(`Received bid update for item ${validItemId}:`, data);
+      if (stream.held) {
+        stream.held.push(data);
+      } else {
+        deliverItemBid(stream, data);
       }
+    });
+    replayItem(validItemId);
 
-      const subscription = stompClient.current.subscribe(destination, (message) => {
-        try {
-          const data = JSON.parse(message.body);
-          console.log(`Received bid update for item ${validItemId}:`, data);
-          callback(data);
-        } catch (error) {
-          console.error(`Error in item ${validItemId} bid update handler:`, error);
-        }
-      });
-      
-      activeSubscriptions.current.set(destination, subscription);
-      return () => {
-        if (activeSubscriptions.current.has(destination)) {
-          activeSubscriptions.current.get(destination).unsubscribe();
-          activeSubscriptions.current.delete(destination);
-        }
-      };
-    } catch (error) {
-      console.error(`Error subscribing to item ${validItemId} bid updates:`, error);
-      return () => {};
-    }
-  }, []);
+    return () => {
+      unsubscribe();
+      if (stream.callback !== callback) {
+        return;
+      }
+      stream.callback = null;
+      if (stream.replay && stompClient.current?.connected) {
+        stream.replay.unsubscribe();
+      }
+      stream.replay = null;
+      stream.held = null;
+    };
+  }, [subscribe, deliverItemBid, replayItem]);
 
+  /**
+   * Sends a bid. Returns true once it is on its way; an accepted bid then shows
+   * up on the item's topic like everyone else's, and a rejected one is reported
+   * on /user/queue/errors.
+   */
   const placeBid = useCallback((bidData) => {
     if (!stompClient.current?.connected) {
       console.error('Cannot place bid: WebSocket not connected');
       toast.error('Connection lost. Please refresh the page and try again.');
       return false;
     }
-    
+
+    if (!connectedToken.current) {
+      toast.error('Please log in to place a bid');
+      return false;
+    }
+
     if (!bidData.itemId) {
       console.error('Cannot place bid: itemId is undefined or null');
       toast.error('Invalid item ID');
@@ -223,32 +280,11 @@ export const WebSocketProvider = ({ children }) => {
       toast.error('Invalid item ID format');
       return false;
     }
-    
+
     try {
       const destination = `/app/bid/${validItemId}`;
       console.log(`Placing bid for item ${validItemId}:`, bidData);
-      
-      // Subscribe to the response topic
-      const responseSubscription = stompClient.current.subscribe(`/topic/bid/${validItemId}`, (message) => {
-        try {
-          const response = JSON.parse(message.body);
-          console.log('Received bid response:', response);
-          
-          // Unsubscribe after receiving the response
-          responseSubscription.unsubscribe();
-          
-          if (response.amount) {
-            toast.success(`Bid placed successfully! Amount: $${response.amount}`);
-          } else {
-            toast.error('Failed to place bid. Please try again.');
-          }
-        } catch (error) {
-          console.error('Error processing bid response:', error);
-          toast.error('Error processing bid response');
-        }
-      });
 
-      // Send the bid
       stompClient.current.publish({
         destination,
         body: JSON.stringify({
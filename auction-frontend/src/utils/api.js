@@ -33,4 +33,22 @@ api.interceptors.response.use(
   }
 );
 
+// Largest page the server returns (KeysetPage.MAX_LIMIT)
+const MAX_PAGE_SIZE = 200;
+
+/**
+ * Reads every row of a keyset-paged list (/items, /bids, /auction-results, ...),
+ * following the X-Next-Cursor header from page to page.
+ */
+export const getAllPages = async (url, config = {}) => {
+  const rows = [];
+  let after;
+  do {
+    const res = await api.get(url, { ...config, params: { ...config.params, after, limit: MAX_PAGE_SIZE } });
+    rows.push(...res.data);
+    after = res.headers['x-next-cursor'];
+  } while (after);
+  return rows;
+};
+
 export default api; 
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.auction.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process ActiveMQ Artemis broker with a STOMP acceptor, started for
+ * websocket.broker.mode=EMBEDDED. The broker relay then talks to it exactly as it
+ * would to an external broker, so the relay path can be run and tested on one node
+ * without extra infrastructure. Nothing is persisted.
+ *
+ * Artemis is only on the classpath when built with the embedded-broker Maven
+ * profile, which also compiles this class.
+ */
+@Component
+@ConditionalOnClass(name = "org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ")
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "EMBEDDED")
+public class EmbeddedStompBroker {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedStompBroker.class);
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int port;
+
+    private EmbeddedActiveMQ broker;
+
+    @PostConstruct
+    public void start() throws Exception {
+        Configuration configuration = new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .setJMXManagementEnabled(false)
+                // Same destination prefixes as the simple broker: /topic fans out, /queue does not
+                .addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + port
+                        + "?protocols=STOMP;multicastPrefix=/topic/;anycastPrefix=/queue/");
+        broker = new EmbeddedActiveMQ().setConfiguration(configuration);
+        broker.start();
+        logger.info("Embedded STOMP broker listening on port {}", port);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+}
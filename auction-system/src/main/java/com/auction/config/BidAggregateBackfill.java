@@ -0,0 +1,46 @@
+package com.auction.config;
+
+import com.auction.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Populates the live bid aggregates (current highest bid, bid count and leading
+ * bidder) on items created before those columns existed. Only rows whose bid count
+ * is still NULL are touched, so running it on every startup is cheap. Also moves
+ * the bid sequence of running items past bid numbers stored without it.
+ */
+@Component
+public class BidAggregateBackfill implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidAggregateBackfill.class);
+
+    private final ItemRepository itemRepository;
+
+    @Value("${bid.aggregates.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    public BidAggregateBackfill(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        if (!backfillOnStartup) {
+            return;
+        }
+        int updated = itemRepository.backfillBidAggregates();
+        if (updated > 0) {
+            logger.info("Backfilled bid aggregates for {} items", updated);
+        }
+        int sequences = itemRepository.backfillBidSequences();
+        if (sequences > 0) {
+            logger.info("Raised the bid sequence of {} items", sequences);
+        }
+    }
+}
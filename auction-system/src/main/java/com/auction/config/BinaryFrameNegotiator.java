@@ -0,0 +1,181 @@
+package com.auction.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lets STOMP clients on the plain WebSocket endpoint (/ws-stomp) receive their JSON
+ * messages as CBOR or Smile instead. A client asks for it with an accept header on
+ * CONNECT, e.g. "accept:application/cbor"; its MESSAGE frames then come as binary
+ * WebSocket frames with content-type application/octet-stream and a payload-type
+ * header naming the encoding. SockJS sessions always get JSON, as SockJS only
+ * carries text.
+ *
+ * The broker hands every subscriber of a destination the same payload array, so
+ * each payload is transcoded once per encoding and the result is reused for the
+ * other subscribers from a small cache keyed by the identity of the JSON payload.
+ *
+ * Registered as a handshake interceptor of /ws-stomp, to mark its sessions, and as
+ * an interceptor of both the inbound and the outbound channel.
+ */
+@Component
+public class BinaryFrameNegotiator implements ChannelInterceptor, HandshakeInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryFrameNegotiator.class);
+
+    private static final String BINARY_CAPABLE = BinaryFrameNegotiator.class.getName() + ".BINARY_CAPABLE";
+    private static final String PAYLOAD_TYPE_HEADER = "payload-type";
+    private static final int CACHE_SIZE = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, PayloadEncoding> sessions = new ConcurrentHashMap<>();
+    private final Map<PayloadEncoding, AtomicReferenceArray<Transcoded>> caches = new EnumMap<>(PayloadEncoding.class);
+
+    public BinaryFrameNegotiator(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        for (PayloadEncoding encoding : PayloadEncoding.values()) {
+            caches.put(encoding, new AtomicReferenceArray<>(CACHE_SIZE));
+        }
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        attributes.put(BINARY_CAPABLE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (messageType == SimpMessageType.CONNECT) {
+            negotiate(message);
+            return message;
+        }
+        if (messageType == SimpMessageType.DISCONNECT) {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+            if (sessionId != null) {
+                sessions.remove(sessionId);
+            }
+            return message;
+        }
+        if (messageType != SimpMessageType.MESSAGE || sessions.isEmpty()) {
+            return message;
+        }
+        PayloadEncoding encoding = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (encoding == null || !(message.getPayload() instanceof byte[] json)) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        MimeType contentType = accessor.getContentType();
+        if (contentType == null || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return message;
+        }
+        byte[] encoded;
+        try {
+            encoded = transcode(json, encoding);
+        } catch (IOException e) {
+            logger.warn("Failed to encode a message to {} as {}: {}",
+                    accessor.getDestination(), encoding.mimeType, e.getMessage());
+            return message;
+        }
+        // Only application/octet-stream is written as a binary WebSocket frame
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(PAYLOAD_TYPE_HEADER, encoding.mimeType);
+        return MessageBuilder.createMessage(encoded, accessor.getMessageHeaders());
+    }
+
+    private void negotiate(Message<?> message) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return;
+        }
+        PayloadEncoding encoding = PayloadEncoding.of(accessor.getFirstNativeHeader("accept"));
+        if (encoding == null) {
+            return;
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null || !Boolean.TRUE.equals(attributes.get(BINARY_CAPABLE))) {
+            logger.debug("Session {} asked for {} over SockJS, sending JSON", accessor.getSessionId(), encoding.mimeType);
+            return;
+        }
+        sessions.put(accessor.getSessionId(), encoding);
+    }
+
+    // A slot taken by another payload only costs encoding this one again
+    private byte[] transcode(byte[] json, PayloadEncoding encoding) throws IOException {
+        AtomicReferenceArray<Transcoded> cache = caches.get(encoding);
+        int slot = System.identityHashCode(json) & (CACHE_SIZE - 1);
+        Transcoded cached = cache.get(slot);
+        if (cached != null && cached.json == json) {
+            return cached.encoded;
+        }
+        byte[] encoded = encoding.mapper.writeValueAsBytes(objectMapper.readTree(json));
+        cache.set(slot, new Transcoded(json, encoded));
+        return encoded;
+    }
+
+    private record Transcoded(byte[] json, byte[] encoded) {
+    }
+
+    private enum PayloadEncoding {
+        CBOR("application/cbor", new CBORMapper()),
+        SMILE("application/x-jackson-smile", new SmileMapper());
+
+        private final String mimeType;
+        private final ObjectMapper mapper;
+
+        PayloadEncoding(String mimeType, ObjectMapper mapper) {
+            this.mimeType = mimeType;
+            this.mapper = mapper;
+        }
+
+        // The first supported type of a comma separated list, in the client's order
+        private static PayloadEncoding of(String accept) {
+            if (accept == null) {
+                return null;
+            }
+            for (String type : accept.split(",")) {
+                if (MimeTypeUtils.APPLICATION_JSON_VALUE.equalsIgnoreCase(type.trim())) {
+                    return null;
+                }
+                for (PayloadEncoding encoding : values()) {
+                    if (encoding.mimeType.equalsIgnoreCase(type.trim())) {
+                        return encoding;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.auction.config;
 
+import com.auction.dto.KeysetPage;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -35,6 +36,8 @@ public class CorsFilter implements Filter {
         response.setHeader("Access-Control-Max-Age", "3600");
         response.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization, Content-Length, X-Requested-With");
         response.setHeader("Access-Control-Allow-Credentials", "true");
+        // Lets browsers read the cursor of keyset-paginated lists
+        response.setHeader("Access-Control-Expose-Headers", KeysetPage.NEXT_CURSOR_HEADER);
 
         if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
             response.setStatus(HttpServletResponse.SC_OK);
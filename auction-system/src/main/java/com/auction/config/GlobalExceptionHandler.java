@@ -1,5 +1,6 @@
 package com.auction.config;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -22,7 +23,7 @@ public class GlobalExceptionHandler {
         if (ex instanceof IllegalArgumentException) {
             error.put("status", HttpStatus.BAD_REQUEST.value());
             return ResponseEntity.badRequest().body(error);
-        } else if (ex instanceof IllegalStateException) {
+        } else if (ex instanceof IllegalStateException || ex instanceof OptimisticLockingFailureException) {
             error.put("status", HttpStatus.CONFLICT.value());
             return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         } else {
@@ -0,0 +1,99 @@
+package com.auction.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of the STOMP client inbound channel. Bids, i.e. SEND frames to
+ * /app/bid/{itemId}, run on a single-threaded lane chosen by itemId, so one item's
+ * bids are handled one at a time in the order they arrived, while different items
+ * run in parallel. Every other frame (CONNECT, SUBSCRIBE, /app/placeBid, ...) goes
+ * to a shared pool like the default inbound channel's, so it never waits behind an
+ * item's bids.
+ */
+@Component
+public class ItemKeyedInboundExecutor implements TaskExecutor {
+
+    private static final String ITEM_PREFIX = "/app/bid/";
+
+    @Value("${websocket.inbound.threads:0}")
+    private int threadCount;
+
+    private ExecutorService[] lanes;
+    private ExecutorService pool;
+
+    @PostConstruct
+    public void start() {
+        // Same size as the default inbound channel pool
+        int count = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors() * 2;
+        lanes = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(threads("stomp-bid-" + i + "-"));
+        }
+        pool = Executors.newFixedThreadPool(count, threads("stomp-inbound-"));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        pool.shutdown();
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Long itemId = task instanceof MessageHandlingRunnable handling ? bidItemIdOf(handling.getMessage()) : null;
+        if (itemId != null) {
+            lanes[Math.floorMod(itemId.hashCode(), lanes.length)].execute(task);
+        } else {
+            pool.execute(task);
+        }
+    }
+
+    // The item of a bid frame, or null for any other frame
+    static Long bidItemIdOf(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(ITEM_PREFIX)) {
+            return null;
+        }
+        String itemId = destination.substring(ITEM_PREFIX.length());
+        if (itemId.isEmpty() || !itemId.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(itemId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory threads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
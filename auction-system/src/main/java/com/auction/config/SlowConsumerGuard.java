@@ -0,0 +1,174 @@
+package com.auction.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps clients on slow networks from holding up everyone else. The transport's
+ * send-time and buffer limits (websocket.send-time-limit-ms,
+ * websocket.send-buffer-size-limit) close a session that stops draining; before it
+ * gets there, bid frames for a session whose current write has been blocked for
+ * more than websocket.conflate-after-ms are held back, one per subscription to an
+ * item topic, and a newer frame replaces the held one. The held frames are sent once
+ * the write completes, so a lagging client skips intermediate prices instead of
+ * queueing them.
+ *
+ * Registered both as a decorator of the WebSocket handler, to see when each
+ * session's writes start and end, and as an interceptor of the outbound channel.
+ * Exposes websocket.frames.conflated, websocket.sessions.lagging and
+ * websocket.sessions.limit-exceeded.
+ */
+@Component
+public class SlowConsumerGuard implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowConsumerGuard.class);
+
+    private static final String BID_TOPIC_PREFIX = "/topic/bid/";
+
+    private final Map<String, Backlog> backlogs = new ConcurrentHashMap<>();
+    private final Counter conflatedFrames;
+    private final Counter limitExceededSessions;
+    private final long conflateAfterNanos;
+
+    public SlowConsumerGuard(
+            MeterRegistry meterRegistry,
+            @Value("${websocket.conflate-after-ms:100}") long conflateAfterMs) {
+        this.conflateAfterNanos = TimeUnit.MILLISECONDS.toNanos(conflateAfterMs);
+        this.conflatedFrames = Counter.builder("websocket.frames.conflated")
+                .description("Bid frames replaced by a newer one before a lagging session got them")
+                .register(meterRegistry);
+        this.limitExceededSessions = Counter.builder("websocket.sessions.limit-exceeded")
+                .description("Sessions closed for exceeding the send time or buffer size limit")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions.lagging", backlogs,
+                        map -> map.values().stream().filter(backlog -> !backlog.pending.isEmpty()).count())
+                .description("Sessions with bid frames held back")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                Backlog backlog = new Backlog();
+                backlogs.put(session.getId(), backlog);
+                super.afterConnectionEstablished(new TrackedSession(session, backlog));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                backlogs.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(BID_TOPIC_PREFIX)) {
+            return message;
+        }
+        Backlog backlog = backlogs.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (backlog == null) {
+            return message;
+        }
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        String key = subscriptionId != null ? subscriptionId : destination;
+        // A frame held for the subscription is replaced even once the write is done, so it is not sent after this one
+        if (!backlog.isLagging(conflateAfterNanos) && !backlog.pending.containsKey(key)) {
+            return message;
+        }
+        backlog.channel = channel;
+        if (backlog.pending.put(key, message) != null) {
+            conflatedFrames.increment();
+        }
+        // The write may have completed since, and drained before this frame was held
+        if (!backlog.isWriting()) {
+            backlog.drain();
+        }
+        return null;
+    }
+
+    // Bid frames held back for one session, latest per subscription
+    private static final class Backlog {
+        private final Map<String, Message<?>> pending = new ConcurrentHashMap<>();
+        // System.nanoTime when the current write started, 0 between writes
+        private volatile long writeStarted;
+        private volatile MessageChannel channel;
+
+        private boolean isWriting() {
+            return writeStarted != 0;
+        }
+
+        private boolean isLagging(long afterNanos) {
+            long started = writeStarted;
+            return started != 0 && System.nanoTime() - started > afterNanos;
+        }
+
+        private void drain() {
+            for (String key : pending.keySet()) {
+                Message<?> message = pending.remove(key);
+                if (message != null) {
+                    channel.send(message);
+                }
+            }
+        }
+    }
+
+    // Wrapped by the transport's own buffering decorator, which calls it one write at a time
+    private final class TrackedSession extends WebSocketSessionDecorator {
+        private final Backlog backlog;
+
+        private TrackedSession(WebSocketSession session, Backlog backlog) {
+            super(session);
+            this.backlog = backlog;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            backlog.writeStarted = System.nanoTime();
+            try {
+                super.sendMessage(message);
+            } finally {
+                backlog.writeStarted = 0;
+                backlog.drain();
+            }
+        }
+
+        @Override
+        public void close(CloseStatus status) throws IOException {
+            if (CloseStatus.SESSION_NOT_RELIABLE.equals(status)) {
+                limitExceededSessions.increment();
+                logger.info("Closing WebSocket session {}: send limits exceeded", getId());
+            }
+            super.close(status);
+        }
+    }
+}
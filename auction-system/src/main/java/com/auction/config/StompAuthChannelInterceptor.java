@@ -0,0 +1,82 @@
+package com.auction.config;
+
+import com.auction.model.User;
+import com.auction.repository.UserRepository;
+import com.auction.service.JwtService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions with the same JWT the REST API uses, sent as an
+ * Authorization header on the CONNECT frame. The user becomes the session's
+ * principal, so message handlers get the bidder from the session instead of the
+ * payload; the session's user name is the user id. Connecting without a token is
+ * allowed for watching auctions; a token that does not validate is refused.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+
+    public StompAuthChannelInterceptor(JwtService jwtService, UserRepository userRepository) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return message;
+        }
+
+        String jwt = authHeader.substring(7);
+        User user;
+        try {
+            user = userRepository.findByUsername(jwtService.extractUsername(jwt)).orElse(null);
+        } catch (RuntimeException e) {
+            user = null;
+        }
+        if (user == null || !jwtService.validateToken(jwt, user)) {
+            logger.warn("Refused STOMP connection with an invalid token");
+            throw new MessagingException("Invalid token");
+        }
+
+        accessor.setUser(new UserIdAuthenticationToken(user));
+        logger.debug("Authenticated STOMP session for user: {}", user.getUsername());
+        return message;
+    }
+
+    /**
+     * Names the session after the user's id, so the server can address a bidder's
+     * sessions as /user/{userId}/... knowing only the id.
+     */
+    private static final class UserIdAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+        private UserIdAuthenticationToken(User user) {
+            super(user, null, user.getAuthorities());
+        }
+
+        @Override
+        public String getName() {
+            return String.valueOf(((User) getPrincipal()).getUserId());
+        }
+    }
+}
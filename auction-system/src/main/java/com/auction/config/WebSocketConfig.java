@@ -1,27 +1,104 @@
 package com.auction.config;
 
+import com.auction.dto.KeysetPage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final String EMBEDDED_BROKER_CLASS = "com.auction.config.EmbeddedStompBroker";
+
     @Value("${cors.allowed-origins:http://localhost:3000,http://localhost:8080}")
     private String[] allowedOrigins;
 
+    /**
+     * SIMPLE keeps topics in this node's memory. RELAY forwards them to an external
+     * STOMP broker (RabbitMQ, ActiveMQ, Artemis) so every node sees every bid, and
+     * EMBEDDED relays to an in-process Artemis broker, which needs a build with the
+     * embedded-broker Maven profile (see EmbeddedStompBroker).
+     */
+    @Value("${websocket.broker.mode:SIMPLE}")
+    private BrokerMode brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // A session that has not finished a write within the time limit, or has this many
+    // bytes waiting, is closed
+    @Value("${websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final SlowConsumerGuard slowConsumerGuard;
+    private final ItemKeyedInboundExecutor itemKeyedInboundExecutor;
+    private final BinaryFrameNegotiator binaryFrameNegotiator;
+
+    public WebSocketConfig(
+            StompAuthChannelInterceptor stompAuthChannelInterceptor,
+            SlowConsumerGuard slowConsumerGuard,
+            ItemKeyedInboundExecutor itemKeyedInboundExecutor,
+            BinaryFrameNegotiator binaryFrameNegotiator) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.slowConsumerGuard = slowConsumerGuard;
+        this.itemKeyedInboundExecutor = itemKeyedInboundExecutor;
+        this.binaryFrameNegotiator = binaryFrameNegotiator;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker to carry the messages back to the client
-        config.enableSimpleBroker("/topic");
+        if (brokerMode == BrokerMode.SIMPLE) {
+            // Enable a simple in-memory message broker to carry the messages back to the client;
+            // /queue carries user destinations such as /user/queue/errors
+            config.enableSimpleBroker("/topic", "/queue");
+        } else {
+            if (brokerMode == BrokerMode.EMBEDDED && !ClassUtils.isPresent(EMBEDDED_BROKER_CLASS, null)) {
+                throw new IllegalStateException(
+                        "websocket.broker.mode=EMBEDDED needs a build with the embedded-broker Maven profile");
+            }
+            String host = brokerMode == BrokerMode.EMBEDDED ? "127.0.0.1" : relayHost;
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(host)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Lets a node deliver /user destinations for sessions connected to another node
+                    .setUserDestinationBroadcast("/topic/unresolved-user")
+                    .setUserRegistryBroadcast("/topic/user-registry");
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        }
         
         // Designates the /app prefix for messages that are bound for @MessageMapping-annotated methods
         config.setApplicationDestinationPrefixes("/app");
@@ -30,12 +107,37 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticate the session from the JWT on CONNECT, then note the payload encoding it accepts
+        registration.interceptors(stompAuthChannelInterceptor, binaryFrameNegotiator);
+        // Handle each item's bids one at a time, in arrival order
+        registration.executor(itemKeyedInboundExecutor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Encodes payloads for binary sessions, and holds back bid frames for sessions that are not keeping up
+        registration.interceptors(binaryFrameNegotiator, slowConsumerGuard);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .addDecoratorFactory(slowConsumerGuard);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register the /ws endpoint for WebSocket connections
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns(allowedOrigins)
                 .withSockJS();
+        // Plain WebSocket endpoint, the only one that can carry binary frames
+        registry.addEndpoint("/ws-stomp")
+                .setAllowedOriginPatterns(allowedOrigins)
+                .addInterceptors(binaryFrameNegotiator);
     }
     
     @Bean
@@ -50,7 +152,14 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         }
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader(KeysetPage.NEXT_CURSOR_HEADER);
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
     }
+
+    public enum BrokerMode {
+        SIMPLE,
+        RELAY,
+        EMBEDDED
+    }
 }
@@ -1,42 +1,47 @@
 package com.auction.config;
 
-import com.auction.model.BidMessage;
+import com.auction.service.ItemWatcherRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
 @Component
 public class WebSocketEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
-    @Autowired
-    private SimpMessageSendingOperations messagingTemplate;
+    private final ItemWatcherRegistry itemWatcherRegistry;
+
+    public WebSocketEventListener(ItemWatcherRegistry itemWatcherRegistry) {
+        this.itemWatcherRegistry = itemWatcherRegistry;
+    }
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
-        logger.info("Received a new web socket connection");
+        logger.debug("Received a new web socket connection");
     }
 
     @EventListener
-    public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
+    public void handleSubscribe(SessionSubscribeEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        itemWatcherRegistry.subscribed(
+                headerAccessor.getSessionId(), headerAccessor.getSubscriptionId(), headerAccessor.getDestination());
+    }
 
-        String username = (String) headerAccessor.getSessionAttributes().get("username");
-        if(username != null) {
-            logger.info("User Disconnected : " + username);
-
-            BidMessage bidMessage = new BidMessage();
-            bidMessage.setBidderName(username);
-            bidMessage.setAmount(0.0);
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        itemWatcherRegistry.unsubscribed(headerAccessor.getSessionId(), headerAccessor.getSubscriptionId());
+    }
 
-            messagingTemplate.convertAndSend("/topic/public", bidMessage);
-        }
+    @EventListener
+    public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
+        itemWatcherRegistry.disconnected(event.getSessionId());
     }
 }
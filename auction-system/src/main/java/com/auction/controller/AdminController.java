@@ -1,6 +1,8 @@
 package com.auction.controller;
 
+import com.auction.dto.WatcherCountDto;
 import com.auction.model.User;
+import com.auction.service.ItemWatcherRegistry;
 import com.auction.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,9 +15,11 @@ import java.util.List;
 public class AdminController {
 
     private final UserService userService;
+    private final ItemWatcherRegistry itemWatcherRegistry;
 
-    public AdminController(UserService userService) {
+    public AdminController(UserService userService, ItemWatcherRegistry itemWatcherRegistry) {
         this.userService = userService;
+        this.itemWatcherRegistry = itemWatcherRegistry;
     }
 
     @GetMapping("/users")
@@ -54,4 +58,11 @@ public class AdminController {
         // TODO: Implement user stats
         return ResponseEntity.ok(new Object());
     }
-} 
\ No newline at end of file
+
+    // Items with the most live watchers on this node, for spotting hot auctions
+    @GetMapping("/items/watched")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<WatcherCountDto>> getMostWatchedItems(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(itemWatcherRegistry.getMostWatched(Math.min(limit, 100)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.auction.controller;
 
 import com.auction.dto.AuctionResultDTO;
+import com.auction.dto.KeysetPage;
 import com.auction.model.AuctionResult;
 import com.auction.service.AuctionResultService;
 import org.springframework.http.HttpStatus;
@@ -21,12 +22,16 @@ public class AuctionResultController {
         this.auctionResultService = auctionResultService;
     }
 
+    /**
+     * Auction results by id, one keyset page at a time; see {@link KeysetPage}.
+     */
     @GetMapping
-    public ResponseEntity<List<AuctionResultDTO>> getAllAuctionResults() {
-        List<AuctionResultDTO> results = auctionResultService.getAllAuctionResults().stream()
+    public ResponseEntity<List<AuctionResultDTO>> getAllAuctionResults(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return auctionResultService.getAuctionResults(after, limit)
                 .map(auctionResultService::convertToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(results);
+                .toResponse();
     }
 
     @GetMapping("/{id}")
@@ -1,8 +1,11 @@
 package com.auction.controller;
 
 import com.auction.dto.BidDto;
+import com.auction.dto.KeysetPage;
+import com.auction.dto.ProxyBidDto;
 import com.auction.dto.UserBidDTO;
 import com.auction.model.Bid;
+import com.auction.model.ProxyBid;
 import com.auction.service.BidService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,7 +15,6 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/bids")
@@ -30,13 +32,14 @@ public class BidController {
         return ResponseEntity.ok(bidService.getBidStats());
     }
 
+    /**
+     * Bids by id, one keyset page at a time; see {@link KeysetPage}.
+     */
     @GetMapping
-    public ResponseEntity<List<BidDto>> getAllBids() {
-        List<Bid> bids = bidService.getAllBids();
-        List<BidDto> bidDtos = bids.stream()
-                .map(BidDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(bidDtos);
+    public ResponseEntity<List<BidDto>> getAllBids(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return bidService.getBids(after, limit).toResponse();
     }
 
     @GetMapping("/{id}")
@@ -47,20 +50,12 @@ public class BidController {
 
     @GetMapping("/item/{itemId}")
     public ResponseEntity<List<BidDto>> getBidsByItem(@PathVariable Long itemId) {
-        List<Bid> bids = bidService.getBidsByItem(itemId);
-        List<BidDto> bidDtos = bids.stream()
-                .map(BidDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(bidDtos);
+        return ResponseEntity.ok(bidService.getBidsByItem(itemId));
     }
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<BidDto>> getBidsByUser(@PathVariable Long userId) {
-        List<Bid> bids = bidService.getBidsByUser(userId);
-        List<BidDto> bidDtos = bids.stream()
-                .map(BidDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(bidDtos);
+        return ResponseEntity.ok(bidService.getBidsByUser(userId));
     }
 
     @GetMapping("/item/{itemId}/highest")
@@ -92,6 +87,28 @@ public class BidController {
         }
     }
 
+    @PostMapping("/proxy")
+    public ResponseEntity<ProxyBidDto> registerProxyBid(
+            @RequestParam Long itemId,
+            @RequestParam Long bidderId,
+            @RequestParam BigDecimal maxAmount) {
+        ProxyBid proxyBid = bidService.registerProxyBid(itemId, bidderId, maxAmount);
+        return new ResponseEntity<>(ProxyBidDto.fromEntity(proxyBid), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/proxy")
+    public ResponseEntity<ProxyBidDto> getProxyBid(@RequestParam Long itemId, @RequestParam Long bidderId) {
+        return bidService.getProxyBid(itemId, bidderId)
+                .map(proxyBid -> ResponseEntity.ok(ProxyBidDto.fromEntity(proxyBid)))
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @DeleteMapping("/proxy")
+    public ResponseEntity<Void> cancelProxyBid(@RequestParam Long itemId, @RequestParam Long bidderId) {
+        bidService.cancelProxyBid(itemId, bidderId);
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBid(@PathVariable("id") Long bidId) {
         bidService.deleteBid(bidId);
@@ -104,11 +121,9 @@ public class BidController {
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<BidDto>> getBidHistory() {
-        List<Bid> bids = bidService.getAllBids();
-        List<BidDto> bidDtos = bids.stream()
-                .map(BidDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(bidDtos);
+    public ResponseEntity<List<BidDto>> getBidHistory(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return bidService.getBids(after, limit).toResponse();
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.auction.controller;
+
+import com.auction.service.ExportService;
+import com.auction.service.ExportService.Format;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Full table exports for admins, streamed as they are read; ?format=jsonl (the
+ * default) writes one JSON object per line, ?format=csv a header row and one line
+ * per row. See {@link ExportService}.
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/bids")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportBids(@RequestParam(defaultValue = "jsonl") String format, HttpServletResponse response)
+            throws IOException {
+        Format exportFormat = Format.of(format);
+        prepare(response, "bids", exportFormat);
+        exportService.exportBids(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/auction-results")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportAuctionResults(@RequestParam(defaultValue = "jsonl") String format, HttpServletResponse response)
+            throws IOException {
+        Format exportFormat = Format.of(format);
+        prepare(response, "auction-results", exportFormat);
+        exportService.exportAuctionResults(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/items")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportItems(@RequestParam(defaultValue = "jsonl") String format, HttpServletResponse response)
+            throws IOException {
+        Format exportFormat = Format.of(format);
+        prepare(response, "items", exportFormat);
+        exportService.exportItems(exportFormat, response.getOutputStream());
+    }
+
+    private static void prepare(HttpServletResponse response, String name, Format format) {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.getExtension() + "\"");
+    }
+}
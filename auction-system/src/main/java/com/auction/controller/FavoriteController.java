@@ -1,7 +1,6 @@
 package com.auction.controller;
 
 import com.auction.dto.FavoriteDto;
-import com.auction.model.Favorite;
 import com.auction.service.FavoriteService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,14 +15,6 @@ public class FavoriteController {
     }
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<FavoriteDto>> getFavoritesByUser(@PathVariable Long userId) {
-        List<FavoriteDto> dtos = favoriteService.getFavoritesByUser(userId).stream()
-            .map(fav -> new FavoriteDto(
-                fav.getId(),
-                fav.getItem() != null ? fav.getItem().getTitle() : null,
-                fav.getItem() != null ? fav.getItem().getImageUrl() : null,
-                fav.getCreatedAt()
-            ))
-            .toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(favoriteService.getFavoritesByUser(userId));
     }
 }
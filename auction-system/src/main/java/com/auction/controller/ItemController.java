@@ -1,16 +1,21 @@
 package com.auction.controller;
 
 import com.auction.dto.BidDto;
+import com.auction.dto.BidReplayDto;
 import com.auction.dto.ItemDto;
+import com.auction.dto.KeysetPage;
 import com.auction.dto.SellingItemDto;
-import com.auction.model.Bid;
+import com.auction.model.BidMessage;
 import com.auction.model.Item;
 import com.auction.service.BidService;
+import com.auction.service.BidStreamHub;
 import com.auction.service.ItemService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import jakarta.validation.Valid;
@@ -25,25 +30,27 @@ public class ItemController {
 
     private final ItemService itemService;
     private final BidService bidService;
+    private final BidStreamHub bidStreamHub;
 
-    public ItemController(ItemService itemService, BidService bidService) {
+    public ItemController(ItemService itemService, BidService bidService, BidStreamHub bidStreamHub) {
         this.itemService = itemService;
         this.bidService = bidService;
+        this.bidStreamHub = bidStreamHub;
     }
 
+    /**
+     * Items by id, one keyset page at a time; see {@link KeysetPage}.
+     */
     @GetMapping
-    public ResponseEntity<List<ItemDto>> getAllItems() {
-        List<Item> items = itemService.getAllItems();
-        List<ItemDto> itemDtos = items.stream()
-                .map(ItemDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(itemDtos);
+    public ResponseEntity<List<ItemDto>> getAllItems(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return itemService.getItems(after, limit).toResponse();
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ItemDto> getItemById(@PathVariable("id") Long itemId) {
-        Item item = itemService.getItemById(itemId);
-        return ResponseEntity.ok(ItemDto.fromEntity(item));
+        return ResponseEntity.ok(itemService.getItemDtoById(itemId));
     }
 
     @GetMapping("/search")
@@ -69,11 +76,29 @@ public class ItemController {
 
     @GetMapping("/{id}/bids")
     public ResponseEntity<List<BidDto>> getItemBids(@PathVariable("id") Long itemId) {
-        List<Bid> bids = bidService.getBidsByItem(itemId);
-        List<BidDto> bidDtos = bids.stream()
-                .map(BidDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(bidDtos);
+        return ResponseEntity.ok(bidService.getBidsByItem(itemId));
+    }
+
+    /**
+     * Server-Sent Events stream of the item's bids, for viewers that only need the
+     * price. Starts with a "snapshot" event of the latest bid, or with the "bid"
+     * events after Last-Event-ID when the browser reconnects.
+     */
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBids(
+            @PathVariable("id") Long itemId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        itemService.requireItem(itemId);
+        BidReplayDto replay;
+        if (lastEventId != null) {
+            replay = bidService.getBidsSince(itemId, lastEventId);
+        } else {
+            BidMessage snapshot = bidService.getBidSnapshot(itemId);
+            replay = snapshot != null
+                    ? BidReplayDto.snapshot(itemId, 0L, snapshot)
+                    : BidReplayDto.missed(itemId, 0L, List.of());
+        }
+        return bidStreamHub.subscribe(itemId, replay);
     }
 
     @PostMapping
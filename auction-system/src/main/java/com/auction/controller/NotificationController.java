@@ -1,7 +1,6 @@
 package com.auction.controller;
 
 import com.auction.dto.NotificationDto;
-import com.auction.model.Notification;
 import com.auction.service.NotificationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,33 +19,12 @@ public class NotificationController {
 
     @GetMapping("/search")
     public ResponseEntity<List<NotificationDto>> searchNotifications(@RequestParam String query) {
-        List<Notification> notifications = notificationService.searchNotifications(query);
-        List<NotificationDto> dtos = notifications.stream()
-            .map(n -> new NotificationDto(
-                n.getId(),
-                n.getTitle(),
-                n.getMessage(),
-                n.getTarget(),
-                n.isRead(),
-                n.getCreatedAt()
-            ))
-            .toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(notificationService.searchNotifications(query));
     }
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<NotificationDto>> getNotificationsByUser(@PathVariable Long userId) {
-        List<NotificationDto> dtos = notificationService.getNotificationsByUser(userId).stream()
-            .map(n -> new NotificationDto(
-                n.getId(),
-                n.getTitle(),
-                n.getMessage(),
-                n.getTarget(),
-                n.isRead(),
-                n.getCreatedAt()
-            ))
-            .toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(notificationService.getNotificationsByUser(userId));
     }
 
     // Endpoint to get general notifications (ALL and SIGNED_IN)
@@ -54,37 +32,10 @@ public class NotificationController {
     public ResponseEntity<List<NotificationDto>> getGeneralNotifications() {
         try {
             List<NotificationDto> allNotifications = new ArrayList<>();
-            
             // Get ALL notifications
-            List<Notification> allTargetNotifications = notificationService.getNotificationsByTarget("ALL");
-            if (allTargetNotifications != null) {
-                allNotifications.addAll(allTargetNotifications.stream()
-                    .map(n -> new NotificationDto(
-                        n.getId(),
-                        n.getTitle(),
-                        n.getMessage(),
-                        n.getTarget(),
-                        n.isRead(),
-                        n.getCreatedAt()
-                    ))
-                    .collect(java.util.stream.Collectors.toList()));
-            }
-            
+            allNotifications.addAll(notificationService.getNotificationsByTarget("ALL"));
             // Get SIGNED_IN notifications
-            List<Notification> signedInNotifications = notificationService.getNotificationsByTarget("SIGNED_IN");
-            if (signedInNotifications != null) {
-                allNotifications.addAll(signedInNotifications.stream()
-                    .map(n -> new NotificationDto(
-                        n.getId(),
-                        n.getTitle(),
-                        n.getMessage(),
-                        n.getTarget(),
-                        n.isRead(),
-                        n.getCreatedAt()
-                    ))
-                    .collect(java.util.stream.Collectors.toList()));
-            }
-            
+            allNotifications.addAll(notificationService.getNotificationsByTarget("SIGNED_IN"));
             return ResponseEntity.ok(allNotifications);
         } catch (Exception e) {
             e.printStackTrace();
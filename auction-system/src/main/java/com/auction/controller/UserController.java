@@ -1,5 +1,6 @@
 package com.auction.controller;
 
+import com.auction.dto.KeysetPage;
 import com.auction.model.User;
 import com.auction.service.UserService;
 import org.springframework.http.HttpStatus;
@@ -19,9 +20,14 @@ public class UserController {
         this.userService = userService;
     }
 
+    /**
+     * Users by id, one keyset page at a time; see {@link KeysetPage}.
+     */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<User>> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return userService.getUsers(after, limit).toResponse();
     }
 
     @GetMapping("/{id}")
@@ -1,122 +1,92 @@
 package com.auction.controller;
 
+import com.auction.config.ItemKeyedInboundExecutor;
+import com.auction.dto.BidReplayDto;
 import com.auction.model.BidMessage;
 import com.auction.model.User;
-import com.auction.repository.UserRepository;
 import com.auction.service.BidService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
-import org.springframework.web.util.HtmlUtils;
 
 import java.math.BigDecimal;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Places bids sent over STOMP. The bidder is the session's principal, set from the
+ * JWT on CONNECT. Accepted bids are broadcast by {@link BidService} like any other
+ * bid, so nothing is sent from here; a rejected bid is reported to the sending
+ * session only, on /user/queue/errors. Bids sent to /app/bid/{itemId} are handled
+ * one at a time per item, in arrival order (see {@link ItemKeyedInboundExecutor}).
+ *
+ * Frames on /topic/bid/{itemId} carry the item's itemBidId. A client that
+ * reconnects subscribes to the topic again and then to
+ * /app/bid/{itemId}/since/{itemBidId} with the last one it saw, which answers
+ * once with what it missed; frames that arrive on both are told apart by
+ * itemBidId.
+ */
 @Controller
 public class WebSocketController {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketController.class);
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
     private final BidService bidService;
 
-    @Autowired
-    public WebSocketController(
-            SimpMessagingTemplate messagingTemplate, 
-            UserRepository userRepository,
-            BidService bidService) {
-        this.messagingTemplate = messagingTemplate;
-        this.userRepository = userRepository;
+    public WebSocketController(BidService bidService) {
         this.bidService = bidService;
     }
 
     @MessageMapping("/placeBid")
-    @SendTo("/topic/bidUpdates")
-    public BidMessage handleBid(@Payload BidMessage bidMessage) {
-        try {
-            // Get current user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                throw new RuntimeException("User not authenticated");
-            }
+    public void handleBid(@Payload BidMessage bidMessage, Principal principal) {
+        if (bidMessage.getItemId() == null) {
+            throw new IllegalArgumentException("Item id is required");
+        }
+        placeBid(bidMessage.getItemId(), bidMessage, principal);
+    }
 
-            String currentUsername = authentication.getName();
-            User currentUser = userRepository.findByUsername(currentUsername)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+    @MessageMapping("/bid/{itemId}")
+    public void handleItemBid(@DestinationVariable Long itemId, @Payload BidMessage bidMessage, Principal principal) {
+        placeBid(itemId, bidMessage, principal);
+    }
 
-            // Update the bid message with bidder info
-            bidMessage.setBidderId(currentUser.getUserId());
-            bidMessage.setBidderName(currentUser.getUsername());
+    @SubscribeMapping("/bid/{itemId}/since/{itemBidId}")
+    public BidReplayDto replayItemBids(@DestinationVariable Long itemId, @DestinationVariable long itemBidId) {
+        return bidService.getBidsSince(itemId, itemBidId);
+    }
 
-            logger.info("Bid placed: {}", bidMessage);
-            
-            return bidMessage;
-        } catch (Exception e) {
-            logger.error("Error processing bid: {}", e.getMessage(), e);
-            throw e;
+    private void placeBid(Long itemId, BidMessage bidMessage, Principal principal) {
+        if (!(principal instanceof Authentication authentication)
+                || !(authentication.getPrincipal() instanceof User bidder)) {
+            throw new IllegalStateException("User not authenticated");
         }
-    }
-    
-    @MessageMapping("/bid/{itemId}")
-    @SendTo("/topic/bid/{itemId}")
-    public BidMessage handleItemBid(@DestinationVariable Long itemId, @Payload BidMessage bidMessage) {
-        try {
-            // Save the bid to the database
-            try {
-                // Set the item ID in the message
-                bidMessage.setItemId(itemId);
-                
-                // Place the bid
-                bidService.placeBid(
-                    itemId,
-                    1L, // Default user ID
-                    BigDecimal.valueOf(bidMessage.getAmount())
-                );
-                
-                // Update the bid message with success info
-                bidMessage.setBidderId(1L);
-                bidMessage.setBidderName("Anonymous");
-                
-                // Broadcast the successful bid to both topics
-                messagingTemplate.convertAndSend("/topic/bidUpdates", bidMessage);
-                messagingTemplate.convertAndSend("/topic/bid/" + itemId, bidMessage);
-                
-                logger.info("Bid placed on item {}: {}", itemId, bidMessage);
-                return bidMessage;
-            } catch (Exception e) {
-                logger.error("Error saving bid: {}", e.getMessage());
-                BidMessage errorMessage = new BidMessage();
-                errorMessage.setItemId(itemId);
-                errorMessage.setAmount(bidMessage.getAmount());
-                errorMessage.setBidderId(1L);
-                errorMessage.setBidderName("Anonymous");
-                return errorMessage;
-            }
-        } catch (Exception e) {
-            logger.error("Error processing bid for item {}: {}", itemId, e.getMessage(), e);
-            BidMessage errorMessage = new BidMessage();
-            errorMessage.setItemId(itemId);
-            errorMessage.setAmount(bidMessage.getAmount());
-            errorMessage.setBidderId(1L);
-            errorMessage.setBidderName("Anonymous");
-            return errorMessage;
+        if (bidMessage.getAmount() == null) {
+            throw new IllegalArgumentException("Bid amount is required");
         }
+
+        bidService.placeBid(itemId, bidder.getUserId(), BigDecimal.valueOf(bidMessage.getAmount()));
+        logger.info("Bid placed on item {} by {}: {}", itemId, bidder.getUsername(), bidMessage.getAmount());
     }
-    
+
     @MessageExceptionHandler
-    @SendToUser("/queue/errors")
-    public String handleException(Throwable exception) {
-        logger.error("WebSocket error: {}", exception.getMessage(), exception);
-        return "Error: " + HtmlUtils.htmlEscape(exception.getMessage());
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, Object> handleException(
+            Exception exception,
+            @Header(SimpMessageHeaderAccessor.DESTINATION_HEADER) String destination) {
+        logger.warn("Bid rejected on {}: {}", destination, exception.getMessage());
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", exception.getMessage());
+        error.put("destination", destination);
+        return error;
     }
 }
@@ -31,6 +31,16 @@ public class BidDto {
         this.bidTime = bidTime;
     }
 
+    // Every field, for the BidRepository queries that select a BidDto directly
+    public BidDto(Long bidId, Long itemId, String itemTitle, Long bidderId, String bidderUsername,
+                  BigDecimal bidAmount, LocalDateTime bidTime, Boolean isWinningBid, Long itemBidId) {
+        this(bidId, itemId, bidderId, bidAmount, bidTime);
+        this.itemTitle = itemTitle;
+        this.bidderUsername = bidderUsername;
+        this.isWinningBid = isWinningBid;
+        this.itemBidId = itemBidId;
+    }
+
     // Static method to convert Bid entity to BidDto
     public static BidDto fromEntity(Bid bid) {
         BidDto dto = new BidDto(
@@ -88,18 +98,10 @@ public class BidDto {
      * @return true if this is the highest bid, false otherwise
      */
     private static Boolean isHighestBid(Bid bid) {
-        Item item = bid.getItem();
-        BigDecimal highestAmount = BigDecimal.ZERO;
-
-        // Find the highest bid amount
-        for (Bid itemBid : item.getBids()) {
-            if (itemBid.getBidAmount().compareTo(highestAmount) > 0) {
-                highestAmount = itemBid.getBidAmount();
-            }
-        }
+        BigDecimal highestAmount = bid.getItem().getCurrentHighestBid();
 
         // Check if this bid matches the highest amount
-        return bid.getBidAmount().compareTo(highestAmount) == 0;
+        return highestAmount != null && bid.getBidAmount().compareTo(highestAmount) == 0;
     }
 
     // Getters and Setters
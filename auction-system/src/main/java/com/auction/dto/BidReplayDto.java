@@ -0,0 +1,36 @@
+package com.auction.dto;
+
+import com.auction.model.BidMessage;
+
+import java.util.List;
+
+/**
+ * What a reconnecting client missed on an item's bid topic since its last seen
+ * itemBidId: either the missed frames, oldest first, or, when those are no longer
+ * buffered, a snapshot of the item's latest bid.
+ */
+public class BidReplayDto {
+    private Long itemId;
+    private Long since;
+    private List<BidMessage> bids;
+    private BidMessage snapshot;
+
+    public static BidReplayDto missed(Long itemId, Long since, List<BidMessage> bids) {
+        BidReplayDto dto = new BidReplayDto();
+        dto.itemId = itemId;
+        dto.since = since;
+        dto.bids = bids;
+        return dto;
+    }
+
+    public static BidReplayDto snapshot(Long itemId, Long since, BidMessage snapshot) {
+        BidReplayDto dto = missed(itemId, since, List.of());
+        dto.snapshot = snapshot;
+        return dto;
+    }
+
+    public Long getItemId() { return itemId; }
+    public Long getSince() { return since; }
+    public List<BidMessage> getBids() { return bids; }
+    public BidMessage getSnapshot() { return snapshot; }
+}
@@ -1,11 +1,8 @@
 package com.auction.dto;
 
-import com.auction.model.Bid;
 import com.auction.model.Item;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Comparator;
-import java.util.Optional;
 
 public class ItemDto {
     private Long itemId;
@@ -40,7 +37,22 @@ public class ItemDto {
         this.startDate = startDate;
         this.endDate = endDate;
     }
-    
+
+    // Every field, for the ItemRepository queries that select an ItemDto directly
+    public ItemDto(Long itemId, Long sellerId, String sellerUsername, Long categoryId, String categoryName,
+                   String title, String description, String imageUrl, BigDecimal startingPrice,
+                   BigDecimal currentHighestBid, Item.ItemStatus itemStatus,
+                   LocalDateTime startDate, LocalDateTime endDate, Integer bidCount) {
+        this(itemId, sellerId, categoryId, title, startingPrice,
+                itemStatus != null ? itemStatus.toString() : null, startDate, endDate);
+        this.sellerUsername = sellerUsername;
+        this.categoryName = categoryName;
+        this.description = description;
+        this.imageUrl = imageUrl;
+        this.currentHighestBid = currentHighestBid;
+        this.bidCount = bidCount != null ? bidCount : 0;
+    }
+
     // Static method to convert Item entity to ItemDto
     public static ItemDto fromEntity(Item item) {
         Long sellerId = item.getSeller() != null ? item.getSeller().getUserId() : null;
@@ -65,15 +77,9 @@ public class ItemDto {
         // Add this console log:
         System.out.println("ItemDto fromEntity - imageUrl: " + item.getImageUrl());
         
-        // Calculate current highest bid and bid count
-        if (item.getBids() != null && !item.getBids().isEmpty()) {
-            Optional<Bid> highestBid = item.getBids().stream()
-                .max(Comparator.comparing(Bid::getBidAmount));
-            highestBid.ifPresent(bid -> dto.setCurrentHighestBid(bid.getBidAmount()));
-            dto.setBidCount(item.getBids().size());
-        } else {
-            dto.setBidCount(0);
-        }
+        // Current highest bid and bid count are maintained on the item itself
+        dto.setCurrentHighestBid(item.getCurrentHighestBid());
+        dto.setBidCount(item.getBidCount() != null ? item.getBidCount() : 0);
         
         return dto;
     }
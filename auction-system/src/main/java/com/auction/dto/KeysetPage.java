@@ -0,0 +1,75 @@
+package com.auction.dto;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a list ordered by id, read with "id > after" instead of an OFFSET,
+ * so every page costs the same however deep the client pages. The body stays a
+ * plain JSON array; the id to pass as ?after= for the next page is sent in the
+ * X-Next-Cursor header, which is absent on the last page.
+ */
+public class KeysetPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private final List<T> items;
+    private final Long nextCursor;
+
+    private KeysetPage(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * The number of rows to ask the repository for: the page size, capped at
+     * MAX_LIMIT, plus one to tell whether another page follows.
+     */
+    public static Limit fetchLimit(Integer limit) {
+        return Limit.of(pageSize(limit) + 1);
+    }
+
+    /**
+     * Builds the page from rows read with {@link #fetchLimit(Integer)}.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, Integer limit, Function<T, Long> id) {
+        int size = pageSize(limit);
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(items, id.apply(items.get(size - 1)));
+    }
+
+    // Ids are positive, so 0 starts at the beginning
+    public static long start(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        return response.body(items);
+    }
+
+    public List<T> getItems() { return items; }
+    public Long getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,30 @@
+package com.auction.dto;
+
+import com.auction.model.ProxyBid;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class ProxyBidDto {
+    private Long proxyBidId;
+    private Long itemId;
+    private Long bidderId;
+    private BigDecimal maxAmount;
+    private LocalDateTime placedAt;
+
+    public static ProxyBidDto fromEntity(ProxyBid proxyBid) {
+        ProxyBidDto dto = new ProxyBidDto();
+        dto.proxyBidId = proxyBid.getProxyBidId();
+        dto.itemId = proxyBid.getItem().getItemId();
+        dto.bidderId = proxyBid.getBidder().getUserId();
+        dto.maxAmount = proxyBid.getMaxAmount();
+        dto.placedAt = proxyBid.getPlacedAt();
+        return dto;
+    }
+
+    public Long getProxyBidId() { return proxyBidId; }
+    public Long getItemId() { return itemId; }
+    public Long getBidderId() { return bidderId; }
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public LocalDateTime getPlacedAt() { return placedAt; }
+}
@@ -0,0 +1,19 @@
+package com.auction.dto;
+
+/**
+ * Number of STOMP sessions on this node subscribed to an item's bid topic.
+ */
+public class WatcherCountDto {
+    private Long itemId;
+    private long watching;
+
+    public static WatcherCountDto of(Long itemId, long watching) {
+        WatcherCountDto dto = new WatcherCountDto();
+        dto.itemId = itemId;
+        dto.watching = watching;
+        return dto;
+    }
+
+    public Long getItemId() { return itemId; }
+    public long getWatching() { return watching; }
+}
@@ -0,0 +1,64 @@
+package com.auction.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A bid that has been validated and accepted by the bid engine but not necessarily
+ * written to the bids table yet. Instances are immutable so they can be handed
+ * between the engine shards and the write-behind thread without copying.
+ */
+public final class AcceptedBid {
+
+    private final Long itemId;
+    private final Long itemBidId;
+    private final Long bidderId;
+    private final String bidderName;
+    private final BigDecimal amount;
+    private final LocalDateTime bidTime;
+
+    public AcceptedBid(Long itemId, Long itemBidId, Long bidderId, String bidderName, BigDecimal amount,
+                       LocalDateTime bidTime) {
+        this.itemId = itemId;
+        this.itemBidId = itemBidId;
+        this.bidderId = bidderId;
+        this.bidderName = bidderName;
+        this.amount = amount;
+        this.bidTime = bidTime;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Long getItemBidId() {
+        return itemBidId;
+    }
+
+    public Long getBidderId() {
+        return bidderId;
+    }
+
+    public String getBidderName() {
+        return bidderName;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getBidTime() {
+        return bidTime;
+    }
+
+    @Override
+    public String toString() {
+        return "AcceptedBid{" +
+                "itemId=" + itemId +
+                ", itemBidId=" + itemBidId +
+                ", bidderId=" + bidderId +
+                ", amount=" + amount +
+                ", bidTime=" + bidTime +
+                '}';
+    }
+}
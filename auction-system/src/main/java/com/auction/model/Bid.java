@@ -53,7 +53,10 @@ public class Bid {
 
     @PrePersist
     protected void onCreate() {
-        bidTime = LocalDateTime.now();
+        // Keep the acceptance time when the bid is written after it was accepted
+        if (bidTime == null) {
+            bidTime = LocalDateTime.now();
+        }
     }
 
     // Getters and Setters
@@ -9,6 +9,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class BidMessage {
     private Long itemId;
+    // Per-item bid sequence; increases with every accepted bid, so clients can order and dedupe updates
+    private Long itemBidId;
+    // Bids accepted since the previous frame for the item; more than one when updates were coalesced
+    private Integer bidCountDelta;
     private Double amount;
     private Long bidderId;
     private String bidderName;
@@ -22,6 +26,22 @@ public class BidMessage {
         this.itemId = itemId;
     }
 
+    public Long getItemBidId() {
+        return itemBidId;
+    }
+
+    public void setItemBidId(Long itemBidId) {
+        this.itemBidId = itemBidId;
+    }
+
+    public Integer getBidCountDelta() {
+        return bidCountDelta;
+    }
+
+    public void setBidCountDelta(Integer bidCountDelta) {
+        this.bidCountDelta = bidCountDelta;
+    }
+
     public Double getAmount() {
         return amount;
     }
@@ -67,9 +67,25 @@ public class Item {
     @OneToOne(mappedBy = "item", cascade = CascadeType.ALL)
     private AuctionResult auctionResult;
 
-    @Column(name = "last_item_bid_id") 
+    // Raised by the item updates that accept bids, never written back from the entity
+    @Column(name = "last_item_bid_id", updatable = false)
     private Long lastItemBidId = 0L;
 
+    // Live auction aggregates, maintained with every accepted or deleted bid
+    @Column(name = "current_highest_bid")
+    private BigDecimal currentHighestBid;
+
+    @Column(name = "bid_count")
+    private Integer bidCount = 0;
+
+    @Column(name = "leading_bidder_id")
+    private Long leadingBidderId;
+
+    // Advanced by every change to the row, including accepted bids
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         if (itemStatus == null) {
@@ -78,6 +94,9 @@ public class Item {
         if (lastItemBidId == null) {
             lastItemBidId = 0L;
         }
+        if (bidCount == null) {
+            bidCount = 0;
+        }
     }
 
     public Long getLastItemBidId() {
@@ -116,4 +135,12 @@ public class Item {
     public void setBids(List<Bid> bids) { this.bids = bids; }
     public AuctionResult getAuctionResult() { return auctionResult; }
     public void setAuctionResult(AuctionResult auctionResult) { this.auctionResult = auctionResult; }
+    public BigDecimal getCurrentHighestBid() { return currentHighestBid; }
+    public void setCurrentHighestBid(BigDecimal currentHighestBid) { this.currentHighestBid = currentHighestBid; }
+    public Integer getBidCount() { return bidCount; }
+    public void setBidCount(Integer bidCount) { this.bidCount = bidCount; }
+    public Long getLeadingBidderId() { return leadingBidderId; }
+    public void setLeadingBidderId(Long leadingBidderId) { this.leadingBidderId = leadingBidderId; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
\ No newline at end of file
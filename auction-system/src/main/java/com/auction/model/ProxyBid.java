@@ -0,0 +1,47 @@
+package com.auction.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A bidder's standing maximum for an item. The system bids on the bidder's behalf,
+ * one increment at a time, up to maxAmount; only the resulting bids are visible.
+ */
+@Entity
+@Table(name = "proxy_bids", uniqueConstraints = @UniqueConstraint(columnNames = {"item_id", "bidder_id"}))
+public class ProxyBid {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long proxyBidId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "bidder_id", nullable = false)
+    private User bidder;
+
+    @Column(nullable = false)
+    private BigDecimal maxAmount;
+
+    // Earlier maximums win ties, so this moves whenever the maximum changes
+    @Column(nullable = false)
+    private LocalDateTime placedAt;
+
+    // Getters and setters
+    public Long getProxyBidId() { return proxyBidId; }
+    public void setProxyBidId(Long proxyBidId) { this.proxyBidId = proxyBidId; }
+    public Item getItem() { return item; }
+    public void setItem(Item item) { this.item = item; }
+    public User getBidder() { return bidder; }
+    public void setBidder(User bidder) { this.bidder = bidder; }
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public void setMaxAmount(BigDecimal maxAmount) { this.maxAmount = maxAmount; }
+    public LocalDateTime getPlacedAt() { return placedAt; }
+    public void setPlacedAt(LocalDateTime placedAt) { this.placedAt = placedAt; }
+}
@@ -2,8 +2,10 @@ package com.auction.repository;
 
 import com.auction.model.AuctionResult;
 import com.auction.model.AuctionResult.ResultStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,9 +14,15 @@ import java.util.Optional;
 @Repository
 public interface AuctionResultRepository extends JpaRepository<AuctionResult, Long> {
     Optional<AuctionResult> findByItemItemId(Long itemId);
+
+    boolean existsByItemItemId(Long itemId);
     
     @Query("SELECT ar FROM AuctionResult ar WHERE ar.winner.userId = :userId")
     List<AuctionResult> findByWinnerUserId(Long userId);
     
     List<AuctionResult> findByResultStatus(ResultStatus status);
+
+    @Query("SELECT ar FROM AuctionResult ar JOIN FETCH ar.item LEFT JOIN FETCH ar.winner " +
+           "WHERE ar.resultId > :after ORDER BY ar.resultId")
+    List<AuctionResult> findPageAfter(@Param("after") long after, Limit limit);
 }
\ No newline at end of file
@@ -1,31 +1,58 @@
 package com.auction.repository;
 
+import com.auction.dto.BidDto;
 import com.auction.model.Bid;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BidRepository extends JpaRepository<Bid, Long> {
-    List<Bid> findByItemItemId(Long itemId);
-    List<Bid> findByBidderUserId(Long userId);
     List<Bid> findByBidderUserIdOrderByBidTimeDesc(Long userId);
+
+    // BidDto read straight from the columns, so no entity is loaded or managed. The
+    // winner check is BidDto.fromEntity's: nothing wins before the auction ends, then
+    // the auction result's winning bid if there is one, else the item's highest bid.
+    String SELECT_BID_DTO = "SELECT new com.auction.dto.BidDto(b.bidId, i.itemId, i.title, u.userId, u.username, " +
+           "b.bidAmount, b.bidTime, " +
+           "CASE WHEN i.endDate IS NULL OR i.endDate > :now THEN false " +
+           "WHEN r.resultId IS NOT NULL THEN " +
+           "CASE WHEN r.winner.userId = u.userId AND r.finalPrice = b.bidAmount THEN true ELSE false END " +
+           "WHEN i.currentHighestBid = b.bidAmount THEN true ELSE false END, " +
+           "b.itemBidId) " +
+           "FROM Bid b JOIN b.item i JOIN b.bidder u LEFT JOIN i.auctionResult r ";
+
+    // A keyset page
+    @Query(SELECT_BID_DTO + "WHERE b.bidId > :after ORDER BY b.bidId")
+    List<BidDto> findDtoPageAfter(@Param("after") long after, @Param("now") LocalDateTime now, Limit limit);
+
+    @Query(SELECT_BID_DTO + "WHERE i.itemId = :itemId ORDER BY b.bidId")
+    List<BidDto> findDtosByItemId(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    @Query(SELECT_BID_DTO + "WHERE u.userId = :userId ORDER BY b.bidId")
+    List<BidDto> findDtosByBidderId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
     
     @Query("SELECT MAX(b.bidAmount) FROM Bid b WHERE b.item.itemId = :itemId")
     Optional<BigDecimal> findHighestBidForItem(@Param("itemId") Long itemId);
     
-    @Query("SELECT MAX(b.bidAmount) FROM Bid b WHERE b.item.itemId = :itemId")
-    Optional<BigDecimal> findHighestBidAmountByItemId(@Param("itemId") Long itemId);
-    
-    @Query("SELECT b FROM Bid b WHERE b.item.itemId = :itemId AND b.bidAmount = " +
-           "(SELECT MAX(b2.bidAmount) FROM Bid b2 WHERE b2.item.itemId = :itemId)")
-    Optional<Bid> findHighestBidWithBidderForItem(@Param("itemId") Long itemId);
+    boolean existsByItemItemIdAndBidderUserIdAndBidAmountAndBidTime(
+            Long itemId, Long bidderId, BigDecimal bidAmount, LocalDateTime bidTime);
+
+    // Earliest of the highest bids, so ties resolve to the bidder who got there first
+    Optional<Bid> findFirstByItemItemIdOrderByBidAmountDescBidTimeAsc(Long itemId);
     
+    // The item's most recently accepted bid, i.e. its current state
+    @Query("SELECT b FROM Bid b JOIN FETCH b.bidder WHERE b.item.itemId = :itemId AND b.itemBidId IS NOT NULL " +
+           "ORDER BY b.itemBidId DESC LIMIT 1")
+    Optional<Bid> findLatestWithBidder(@Param("itemId") Long itemId);
+
     @Query("SELECT COUNT(b) FROM Bid b WHERE b.item.itemId = :itemId")
     long countBidsByItemId(@Param("itemId") Long itemId);
     
@@ -34,7 +61,5 @@ public interface BidRepository extends JpaRepository<Bid, Long> {
     
     @Query("SELECT SUM(b.bidAmount) FROM Bid b")
     BigDecimal getTotalBidValue();
-    
-    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Bid b WHERE b.item.itemId = :itemId AND b.bidAmount > :amount")
-    boolean existsByItemIdAndAmountGreaterThan(@Param("itemId") Long itemId, @Param("amount") BigDecimal amount);
+
 }
\ No newline at end of file
@@ -1,12 +1,17 @@
 package com.auction.repository;
 
+import com.auction.dto.FavoriteDto;
 import com.auction.model.Favorite;
-import com.auction.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
-    List<Favorite> findByUserUserId(Long userId);
+    // Only the columns FavoriteDto shows, without loading the favorites or their items
+    @Query("SELECT new com.auction.dto.FavoriteDto(f.id, i.title, i.imageUrl, f.createdAt) " +
+           "FROM Favorite f LEFT JOIN f.item i WHERE f.user.userId = :userId ORDER BY f.id")
+    List<FavoriteDto> findDtosByUserId(@Param("userId") Long userId);
 }
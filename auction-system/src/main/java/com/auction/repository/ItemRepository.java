@@ -1,13 +1,21 @@
 package com.auction.repository;
 
+import com.auction.dto.ItemDto;
 import com.auction.model.Item;
 import com.auction.model.Item.ItemStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
@@ -17,7 +25,20 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     
     @Query("SELECT i FROM Item i WHERE i.itemStatus = 'ACTIVE' AND i.endDate < :now")
     List<Item> findExpiredAuctions(LocalDateTime now);
+
+    @Query("SELECT i.itemId FROM Item i WHERE i.itemStatus = 'ACTIVE' AND i.endDate < :now")
+    List<Long> findExpiredAuctionIds(LocalDateTime now);
     
+    // Deadlines of running auctions, loaded into the auction closer at startup
+    @Query("SELECT i.itemId AS itemId, i.endDate AS endDate FROM Item i " +
+           "WHERE i.itemStatus = 'ACTIVE' AND i.endDate IS NOT NULL")
+    List<AuctionDeadline> findActiveAuctionDeadlines();
+
+    interface AuctionDeadline {
+        Long getItemId();
+        LocalDateTime getEndDate();
+    }
+
     List<Item> findByTitleContainingIgnoreCase(String keyword);
     long countByItemStatus(ItemStatus status);
 
@@ -28,6 +49,99 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseOrCategoryNameContainingIgnoreCase(
         String query, String query2, String query3);
 
-    @Query("SELECT i FROM Item i LEFT JOIN i.bids b GROUP BY i ORDER BY COUNT(b) DESC")
-    List<Item> findTop5ByOrderByBidsCountDesc();
+    List<Item> findTop5ByOrderByBidCountDesc();
+
+    // ItemDto read straight from the columns, so no entity is loaded or managed
+    String SELECT_ITEM_DTO = "SELECT new com.auction.dto.ItemDto(i.itemId, s.userId, s.username, " +
+           "c.categoryId, c.categoryName, i.title, i.description, i.imageUrl, i.startingPrice, " +
+           "i.currentHighestBid, i.itemStatus, i.startDate, i.endDate, i.bidCount) " +
+           "FROM Item i LEFT JOIN i.seller s LEFT JOIN i.category c ";
+
+    // A keyset page
+    @Query(SELECT_ITEM_DTO + "WHERE i.itemId > :after ORDER BY i.itemId")
+    List<ItemDto> findDtoPageAfter(@Param("after") long after, Limit limit);
+
+    @Query(SELECT_ITEM_DTO + "WHERE i.itemId = :itemId")
+    Optional<ItemDto> findDtoById(@Param("itemId") Long itemId);
+
+    // Records accepted bids on the live aggregates; amount must be the new highest bid. The
+    // same statement takes count numbers from the item's bid sequence and returns the last one.
+    // A closed auction keeps the result it was settled with, so only running items are updated.
+    @Query(value = "UPDATE items SET current_highest_bid = :amount, leading_bidder_id = :bidderId, " +
+           "bid_count = COALESCE(bid_count, 0) + :count, version = version + 1, " +
+           "last_item_bid_id = COALESCE(last_item_bid_id, 0) + :count " +
+           "WHERE item_id = :itemId AND item_status = 'ACTIVE' " +
+           "RETURNING last_item_bid_id", nativeQuery = true)
+    Optional<Long> applyAcceptedBids(@Param("itemId") Long itemId,
+                                     @Param("amount") BigDecimal amount,
+                                     @Param("bidderId") Long bidderId,
+                                     @Param("count") int count);
+
+    // As applyAcceptedBids, for bids the bid engine numbered itself: also moves the item's
+    // bid sequence up to the last of them, so other acceptance paths and reloads continue after it
+    @Modifying
+    @Query("UPDATE Item i SET i.currentHighestBid = :amount, i.leadingBidderId = :bidderId, " +
+           "i.bidCount = COALESCE(i.bidCount, 0) + :count, i.version = i.version + 1, " +
+           "i.lastItemBidId = CASE WHEN COALESCE(i.lastItemBidId, 0) < :lastItemBidId " +
+           "THEN :lastItemBidId ELSE i.lastItemBidId END " +
+           "WHERE i.itemId = :itemId AND i.itemStatus = 'ACTIVE'")
+    int applyNumberedBids(@Param("itemId") Long itemId,
+                          @Param("amount") BigDecimal amount,
+                          @Param("bidderId") Long bidderId,
+                          @Param("count") int count,
+                          @Param("lastItemBidId") long lastItemBidId);
+
+    // Accepts bids only if the item is unchanged since it was read and the new high still beats
+    // the current one; numbers them like applyAcceptedBids, and returns nothing when the claim loses
+    @Query(value = "UPDATE items SET current_highest_bid = :amount, leading_bidder_id = :bidderId, " +
+           "bid_count = COALESCE(bid_count, 0) + :count, version = version + 1, " +
+           "last_item_bid_id = COALESCE(last_item_bid_id, 0) + :count " +
+           "WHERE item_id = :itemId AND version = :version " +
+           "AND (current_highest_bid IS NULL OR current_highest_bid < :amount) " +
+           "RETURNING last_item_bid_id", nativeQuery = true)
+    Optional<Long> compareAndSetHighestBid(@Param("itemId") Long itemId,
+                                           @Param("version") long version,
+                                           @Param("amount") BigDecimal amount,
+                                           @Param("bidderId") Long bidderId,
+                                           @Param("count") int count);
+
+    // Serializes writers of one item's bids for the rest of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.itemId = :itemId")
+    Optional<Item> findByIdForUpdate(@Param("itemId") Long itemId);
+
+    // Bumps the version without touching the bids, so concurrent compare-and-set bids re-read the item
+    @Modifying
+    @Query("UPDATE Item i SET i.version = i.version + 1 WHERE i.itemId = :itemId AND i.version = :version")
+    int compareAndSetVersion(@Param("itemId") Long itemId, @Param("version") long version);
+
+    // Recomputes the live aggregates of one item from its bids, e.g. after a bid was deleted
+    @Modifying
+    @Query(value = "UPDATE items SET " +
+           "bid_count = (SELECT COUNT(*) FROM bids b WHERE b.item_id = items.item_id), " +
+           "current_highest_bid = (SELECT MAX(b.bid_amount) FROM bids b WHERE b.item_id = items.item_id), " +
+           "leading_bidder_id = (SELECT b.bidder_id FROM bids b WHERE b.item_id = items.item_id " +
+           "ORDER BY b.bid_amount DESC, b.bid_time ASC LIMIT 1), " +
+           "version = version + 1 " +
+           "WHERE item_id = :itemId", nativeQuery = true)
+    int recalculateBidAggregates(@Param("itemId") Long itemId);
+
+    // Raises the bid sequence of running items above every stored bid number, for rows
+    // numbered before the sequence was kept in the same transaction as the bids
+    @Modifying
+    @Query(value = "UPDATE items i SET last_item_bid_id = m.last_item_bid_id " +
+           "FROM (SELECT b.item_id, MAX(b.item_bid_id) AS last_item_bid_id FROM bids b " +
+           "JOIN items a ON a.item_id = b.item_id AND a.item_status = 'ACTIVE' GROUP BY b.item_id) m " +
+           "WHERE i.item_id = m.item_id AND COALESCE(i.last_item_bid_id, 0) < m.last_item_bid_id", nativeQuery = true)
+    int backfillBidSequences();
+
+    // Populates the live aggregates of items that predate them
+    @Modifying
+    @Query(value = "UPDATE items SET " +
+           "bid_count = (SELECT COUNT(*) FROM bids b WHERE b.item_id = items.item_id), " +
+           "current_highest_bid = (SELECT MAX(b.bid_amount) FROM bids b WHERE b.item_id = items.item_id), " +
+           "leading_bidder_id = (SELECT b.bidder_id FROM bids b WHERE b.item_id = items.item_id " +
+           "ORDER BY b.bid_amount DESC, b.bid_time ASC LIMIT 1) " +
+           "WHERE bid_count IS NULL", nativeQuery = true)
+    int backfillBidAggregates();
 }
\ No newline at end of file
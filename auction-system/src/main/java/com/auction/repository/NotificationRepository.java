@@ -1,13 +1,26 @@
 package com.auction.repository;
 
+import com.auction.dto.NotificationDto;
 import com.auction.model.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUserUserId(Long userId);
-    List<Notification> findByTarget(String target);
-    List<Notification> findByTitleContainingIgnoreCaseOrMessageContainingIgnoreCase(String title, String message);
+    // NotificationDto read straight from the columns, so no entity is loaded or managed
+    String SELECT_NOTIFICATION_DTO = "SELECT new com.auction.dto.NotificationDto(n.id, n.title, n.message, " +
+           "n.target, n.read, n.createdAt) FROM Notification n ";
+
+    @Query(SELECT_NOTIFICATION_DTO + "WHERE n.user.userId = :userId ORDER BY n.id")
+    List<NotificationDto> findDtosByUserId(@Param("userId") Long userId);
+
+    @Query(SELECT_NOTIFICATION_DTO + "WHERE n.target = :target ORDER BY n.id")
+    List<NotificationDto> findDtosByTarget(@Param("target") String target);
+
+    @Query(SELECT_NOTIFICATION_DTO + "WHERE LOWER(n.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "OR LOWER(n.message) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY n.id")
+    List<NotificationDto> searchDtos(@Param("query") String query);
 }
@@ -0,0 +1,27 @@
+package com.auction.repository;
+
+import com.auction.model.ProxyBid;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProxyBidRepository extends JpaRepository<ProxyBid, Long> {
+
+    // Bidder names are needed to broadcast proxy bids
+    @Query("SELECT p FROM ProxyBid p JOIN FETCH p.bidder WHERE p.item.itemId = :itemId")
+    List<ProxyBid> findByItemIdWithBidder(@Param("itemId") Long itemId);
+
+    Optional<ProxyBid> findByItemItemIdAndBidderUserId(Long itemId, Long bidderId);
+
+    // Proxy bids stop bidding once the auction is settled, and go with the item when it is deleted
+    @Modifying
+    @Query("DELETE FROM ProxyBid p WHERE p.item.itemId IN :itemIds")
+    int deleteByItemIds(@Param("itemIds") Collection<Long> itemIds);
+}
@@ -0,0 +1,305 @@
+package com.auction.service;
+
+import com.auction.model.Item;
+import com.auction.repository.ItemRepository;
+import com.auction.util.TimingWheel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closes auctions at their end date. The end dates of all running auctions sit in
+ * a {@link TimingWheel} that ticks every auction.closer.tick-ms, so an auction is
+ * closed within about one tick of its deadline without polling the items table.
+ * ItemService keeps the wheel in step with every change to an item's status or
+ * end date; {@link AuctionScheduler} remains as a low-frequency safety net.
+ *
+ * Both hand their expired items to {@link #closeExpired}. A few items are closed
+ * by {@link #closeAll} on a bounded worker pool with one short transaction per
+ * item, so one slow item does not hold up the others. From
+ * auction.settlement.bulk-threshold items on, {@link #settleAll} settles them in
+ * chunks with set-based SQL instead. Either way the result is read from the
+ * database, so each item is first drained from the {@link BidEngine}; an item whose
+ * accepted bids are not written within auction.settlement.drain-timeout-ms is
+ * counted as failed and retried on the next tick. Every item closed one by one is timed in the
+ * auction.close timer, tagged with the outcome, and every run in auction.close.run,
+ * tagged with the trigger.
+ */
+@Component
+public class AuctionCloser {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionCloser.class);
+
+    private final ItemRepository itemRepository;
+    private final AuctionResultService auctionResultService;
+    private final BidEngine bidEngine;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "auction-closer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${auction.closer.tick-ms:1000}")
+    private long tickMs;
+
+    // One revolution of the default wheel covers an hour; later deadlines wait for their round
+    @Value("${auction.closer.wheel-size:3600}")
+    private int wheelSize;
+
+    @Value("${auction.closer.workers:4}")
+    private int workerCount;
+
+    @Value("${auction.settlement.bulk-threshold:100}")
+    private int bulkThreshold;
+
+    @Value("${auction.settlement.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${auction.settlement.drain-timeout-ms:5000}")
+    private long drainTimeoutMs;
+
+    private volatile TimingWheel<Long> wheel;
+    private ExecutorService workers;
+
+    public AuctionCloser(
+            ItemRepository itemRepository,
+            AuctionResultService auctionResultService,
+            BidEngine bidEngine,
+            MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.auctionResultService = auctionResultService;
+        this.bidEngine = bidEngine;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "auction-closer-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        TimingWheel<Long> loaded = new TimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        List<ItemRepository.AuctionDeadline> deadlines = itemRepository.findActiveAuctionDeadlines();
+        for (ItemRepository.AuctionDeadline deadline : deadlines) {
+            loaded.schedule(deadline.getItemId(), toMillis(deadline.getEndDate()));
+        }
+        wheel = loaded;
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        logger.info("Auction closer started with {} running auctions", deadlines.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        workers.shutdown();
+    }
+
+    /**
+     * Schedules or cancels the close of an item after its status or end date
+     * changed. Inside a transaction this happens after commit, so the closer never
+     * acts on a change that was rolled back.
+     */
+    public void track(Item item) {
+        Long itemId = item.getItemId();
+        LocalDateTime endDate = item.getItemStatus() == Item.ItemStatus.ACTIVE ? item.getEndDate() : null;
+        afterCommit(() -> {
+            if (wheel == null) {
+                // Not started yet; the startup load will pick the item up
+                return;
+            }
+            if (endDate == null) {
+                wheel.cancel(itemId);
+            } else {
+                wheel.schedule(itemId, toMillis(endDate));
+            }
+        });
+    }
+
+    public void untrack(Long itemId) {
+        afterCommit(() -> {
+            if (wheel != null) {
+                wheel.cancel(itemId);
+            }
+        });
+    }
+
+    /**
+     * Closes the given expired items one by one or in bulk, depending on how many
+     * there are.
+     */
+    public CompletableFuture<CloseRun> closeExpired(List<Long> itemIds, String trigger) {
+        return itemIds.size() >= bulkThreshold ? settleAll(itemIds, trigger) : closeAll(itemIds, trigger);
+    }
+
+    /**
+     * Settles the given items with set-based SQL, one transaction per chunk. Chunks
+     * run in parallel on the worker pool; they never wait on each other because each
+     * skips rows another closer has locked.
+     */
+    public CompletableFuture<CloseRun> settleAll(List<Long> itemIds, String trigger) {
+        long start = System.nanoTime();
+        AtomicInteger closed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < itemIds.size(); from += chunkSize) {
+            List<Long> chunk = itemIds.subList(from, Math.min(from + chunkSize, itemIds.size()));
+            chunks.add(CompletableFuture.runAsync(() -> {
+                List<Long> drained = List.of();
+                try {
+                    drained = drain(chunk);
+                    closed.addAndGet(auctionResultService.settleExpired(drained).size());
+                } catch (RuntimeException e) {
+                    logger.error("Error settling {} expired auctions", drained.size(), e);
+                    failed.addAndGet(drained.size());
+                } finally {
+                    failed.addAndGet(chunk.size() - drained.size());
+                    chunk.forEach(bidEngine::evict);
+                }
+            }, workers));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            long elapsed = System.nanoTime() - start;
+            meterRegistry.timer("auction.close.run", "trigger", trigger).record(elapsed, TimeUnit.NANOSECONDS);
+            int skipped = itemIds.size() - closed.get() - failed.get();
+            return new CloseRun(closed.get(), skipped, failed.get(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        });
+    }
+
+    /**
+     * Closes the given items in parallel, each in its own transaction. Items that
+     * are no longer due are skipped and failures are logged and counted, so the run
+     * always completes; the sweep retries whatever failed.
+     */
+    public CompletableFuture<CloseRun> closeAll(List<Long> itemIds, String trigger) {
+        long start = System.nanoTime();
+        AtomicInteger closed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CompletableFuture<?>[] tasks = itemIds.stream()
+                .map(itemId -> CompletableFuture.runAsync(() -> {
+                    String outcome = close(itemId);
+                    switch (outcome) {
+                        case "closed" -> closed.incrementAndGet();
+                        case "skipped" -> skipped.incrementAndGet();
+                        default -> failed.incrementAndGet();
+                    }
+                }, workers))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(tasks).thenApply(done -> {
+            long elapsed = System.nanoTime() - start;
+            meterRegistry.timer("auction.close.run", "trigger", trigger).record(elapsed, TimeUnit.NANOSECONDS);
+            return new CloseRun(closed.get(), skipped.get(), failed.get(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        });
+    }
+
+    private void tick() {
+        try {
+            List<Long> due = wheel.advance(System.currentTimeMillis());
+            if (!due.isEmpty()) {
+                closeExpired(due, "timer").thenAccept(run -> logger.info("Closed due auctions: {}", run));
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            logger.error("Auction closer tick failed", e);
+        }
+    }
+
+    private String close(Long itemId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome;
+        try {
+            if (drain(List.of(itemId)).isEmpty()) {
+                outcome = "failed";
+            } else {
+                outcome = auctionResultService.closeIfExpired(itemId).isPresent() ? "closed" : "skipped";
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error closing auction for item ID: {}", itemId, e);
+            outcome = "failed";
+        } finally {
+            bidEngine.evict(itemId);
+        }
+        sample.stop(meterRegistry.timer("auction.close", "outcome", outcome));
+        return outcome;
+    }
+
+    /**
+     * Drains the items from the bid engine, so their rows and bids are final, and
+     * returns those that are ready to settle. The others are due again on the next
+     * tick. Every given item must be evicted from the engine afterwards.
+     */
+    private List<Long> drain(List<Long> itemIds) {
+        List<Long> drained;
+        try {
+            drained = bidEngine.drain(itemIds, drainTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drained = List.of();
+        }
+        if (drained.size() < itemIds.size()) {
+            List<Long> pending = new ArrayList<>(itemIds);
+            pending.removeAll(drained);
+            logger.warn("Accepted bids of {} auctions not written within {} ms, retrying: {}",
+                    pending.size(), drainTimeoutMs, pending);
+            TimingWheel<Long> current = wheel;
+            if (current != null) {
+                pending.forEach(itemId -> current.schedule(itemId, System.currentTimeMillis()));
+            }
+        }
+        return drained;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Outcome of one {@link #closeAll} run.
+     */
+    public record CloseRun(int closed, int skipped, int failed, long elapsedMillis) {
+
+        public int total() {
+            return closed + skipped + failed;
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.auction.service;
 
 import com.auction.dto.AuctionResultDTO;
+import com.auction.dto.KeysetPage;
 import com.auction.exception.ResourceNotFoundException;
 import com.auction.model.AuctionResult;
-import com.auction.model.Bid;
 import com.auction.model.Item;
+import com.auction.model.User;
 import com.auction.repository.AuctionResultRepository;
 import com.auction.repository.ItemRepository;
+import com.auction.repository.ProxyBidRepository;
+import com.auction.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 //import java.util.stream.Collectors;
@@ -18,21 +25,62 @@ import java.util.Optional;
 @Service
 public class AuctionResultService {
 
+    // Winner per item: highest bid, earliest on a tie, as everywhere else
+    private static final String SETTLE_EXPIRED =
+            "WITH expired AS (" +
+            "    SELECT i.item_id FROM items i" +
+            "    WHERE i.item_id = ANY (?) AND i.item_status = 'ACTIVE' AND i.end_date < ?" +
+            "    AND NOT EXISTS (SELECT 1 FROM auction_results r WHERE r.item_id = i.item_id)" +
+            "    FOR UPDATE SKIP LOCKED" +
+            "), winners AS (" +
+            "    SELECT ranked.item_id, ranked.bidder_id, ranked.bid_amount FROM (" +
+            "        SELECT b.item_id, b.bidder_id, b.bid_amount," +
+            "               ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.bid_amount DESC, b.bid_time ASC) AS rn" +
+            "        FROM bids b JOIN expired e ON e.item_id = b.item_id" +
+            "    ) ranked WHERE ranked.rn = 1" +
+            "), results AS (" +
+            "    INSERT INTO auction_results (item_id, winner_id, final_price, result_status)" +
+            "    SELECT e.item_id, w.bidder_id, COALESCE(w.bid_amount, 0)," +
+            "           CASE WHEN w.bidder_id IS NULL THEN 'CANCELLED' ELSE 'PENDING' END" +
+            "    FROM expired e LEFT JOIN winners w ON w.item_id = e.item_id" +
+            "    RETURNING item_id, winner_id" +
+            ") " +
+            "UPDATE items i SET" +
+            "    item_status = CASE WHEN r.winner_id IS NULL THEN 'ENDED' ELSE 'SOLD' END," +
+            "    seller_id = COALESCE(r.winner_id, i.seller_id)," +
+            "    version = i.version + 1 " +
+            "FROM results r WHERE i.item_id = r.item_id " +
+            "RETURNING i.item_id";
+
     private final AuctionResultRepository auctionResultRepository;
     private final ItemRepository itemRepository;
-    private final BidService bidService;
+    private final ProxyBidRepository proxyBidRepository;
+    private final UserRepository userRepository;
+    private final BidEngine bidEngine;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${auction.settlement.drain-timeout-ms:5000}")
+    private long drainTimeoutMs;
 
     public AuctionResultService(
             AuctionResultRepository auctionResultRepository,
             ItemRepository itemRepository,
-            BidService bidService) {
+            ProxyBidRepository proxyBidRepository,
+            UserRepository userRepository,
+            BidEngine bidEngine,
+            JdbcTemplate jdbcTemplate) {
+        this.proxyBidRepository = proxyBidRepository;
         this.auctionResultRepository = auctionResultRepository;
         this.itemRepository = itemRepository;
-        this.bidService = bidService;
+        this.userRepository = userRepository;
+        this.bidEngine = bidEngine;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
-    public List<AuctionResult> getAllAuctionResults() {
-        return auctionResultRepository.findAll();
+    public KeysetPage<AuctionResult> getAuctionResults(Long after, Integer limit) {
+        List<AuctionResult> rows = auctionResultRepository.findPageAfter(
+                KeysetPage.start(after), KeysetPage.fetchLimit(limit));
+        return KeysetPage.of(rows, limit, AuctionResult::getResultId);
     }
 
     public AuctionResult getAuctionResultById(Long resultId) {
@@ -54,28 +102,68 @@ public class AuctionResultService {
 
     @Transactional
     public AuctionResult createAuctionResult(Long itemId) {
-        Item item = itemRepository.findById(itemId)
+        // The winner is read from the row, so the bids the engine accepted must be in it first
+        bidEngine.evict(itemId);
+        if (!drain(itemId)) {
+            throw new IllegalStateException("Bids on this item are still being saved, please retry");
+        }
+        Item item = itemRepository.findByIdForUpdate(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
 
         // Check if auction result already exists
-        if (auctionResultRepository.findByItemItemId(itemId).isPresent()) {
+        if (auctionResultRepository.existsByItemItemId(itemId)) {
             throw new IllegalStateException("Auction result already exists for item with id: " + itemId);
         }
 
-        // Get highest bid with bidder
-        Optional<Bid> highestBid = bidService.getHighestBidWithBidder(itemId);
+        return close(item);
+    }
+
+    /**
+     * Closes the auction if it is still running and its end date has passed, e.g.
+     * when a timer fires for a deadline that has since been moved or handled. The
+     * item row stays locked until commit, so concurrent closers cannot both win.
+     * The caller drains the item from the {@link BidEngine} first, see
+     * {@link AuctionCloser}.
+     */
+    @Transactional
+    public Optional<AuctionResult> closeIfExpired(Long itemId) {
+        Optional<Item> found = itemRepository.findByIdForUpdate(itemId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Item item = found.get();
+        if (item.getItemStatus() != Item.ItemStatus.ACTIVE
+                || item.getEndDate() == null
+                || item.getEndDate().isAfter(LocalDateTime.now())
+                || auctionResultRepository.existsByItemItemId(itemId)) {
+            return Optional.empty();
+        }
+        return Optional.of(close(item));
+    }
+
+    private boolean drain(Long itemId) {
+        try {
+            return !bidEngine.drain(List.of(itemId), drainTimeoutMs).isEmpty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 
+    private AuctionResult close(Item item) {
         AuctionResult auctionResult = new AuctionResult();
         auctionResult.setItem(item);
 
-        if (highestBid.isPresent()) {
-            auctionResult.setWinner(highestBid.get().getBidder());
-            auctionResult.setFinalPrice(highestBid.get().getBidAmount());
+        // The winner is read from the item's live aggregates instead of querying the bids
+        if (item.getLeadingBidderId() != null && item.getCurrentHighestBid() != null) {
+            User winner = userRepository.getReferenceById(item.getLeadingBidderId());
+            auctionResult.setWinner(winner);
+            auctionResult.setFinalPrice(item.getCurrentHighestBid());
             auctionResult.setResultStatus(AuctionResult.ResultStatus.PENDING);
 
             // Update item status to SOLD and set seller to winner
             item.setItemStatus(Item.ItemStatus.SOLD);
-            item.setSeller(highestBid.get().getBidder());
+            item.setSeller(winner);
             itemRepository.save(item);
         } else {
             // No bids were placed
@@ -87,9 +175,39 @@ public class AuctionResultService {
             itemRepository.save(item);
         }
 
+        // The auction is over, so the standing maximums have nothing left to bid on
+        proxyBidRepository.deleteByItemIds(List.of(item.getItemId()));
+        bidEngine.evict(item.getItemId());
+
         return auctionResultRepository.save(auctionResult);
     }
 
+    /**
+     * Settles a batch of expired auctions with set-based SQL instead of one entity
+     * round-trip per item: a window function over the bids picks every winner, all
+     * results are inserted by one INSERT ... SELECT and all items are marked SOLD or
+     * ENDED by one UPDATE. Items that are no longer due, already have a result or are
+     * locked by another closer are left out. Returns the ids of the settled items.
+     * As with {@link #closeIfExpired}, the items must be drained from the engine.
+     */
+    @Transactional
+    public List<Long> settleExpired(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> settled = jdbcTemplate.query(SETTLE_EXPIRED,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("bigint", itemIds.toArray()));
+                    ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                },
+                (rs, rowNum) -> rs.getLong(1));
+        if (!settled.isEmpty()) {
+            proxyBidRepository.deleteByItemIds(settled);
+        }
+        settled.forEach(bidEngine::evict);
+        return settled;
+    }
+
     @Transactional
     public AuctionResult updateAuctionResultStatus(Long resultId, AuctionResult.ResultStatus status) {
         AuctionResult auctionResult = getAuctionResultById(resultId);
@@ -1,11 +1,9 @@
 package com.auction.service;
 
-import com.auction.model.Item;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,32 +13,29 @@ public class AuctionScheduler {
     private static final Logger logger = LoggerFactory.getLogger(AuctionScheduler.class);
 
     private final ItemService itemService;
-    private final AuctionResultService auctionResultService;
+    private final AuctionCloser auctionCloser;
 
-    public AuctionScheduler(ItemService itemService, AuctionResultService auctionResultService) {
+    public AuctionScheduler(ItemService itemService, AuctionCloser auctionCloser) {
         this.itemService = itemService;
-        this.auctionResultService = auctionResultService;
+        this.auctionCloser = auctionCloser;
     }
 
     /**
-     * Runs every 15 minutes to check for expired auctions and process them
+     * Reconciliation sweep for expired auctions. Auctions are normally closed on time
+     * by the {@link AuctionCloser}; this catches any it missed, e.g. after a failure.
+     * Large backlogs are settled in bulk, see {@link AuctionCloser#closeExpired}.
      */
-    @Scheduled(fixedRate = 900000) // 15 minutes in milliseconds
-    @Transactional
+    @Scheduled(fixedRateString = "${auction.reconcile.interval-ms:900000}") // 15 minutes by default
     public void processExpiredAuctions() {
         logger.info("Running scheduled task to process expired auctions");
         
-        List<Item> expiredAuctions = itemService.findExpiredAuctions();
+        List<Long> expiredAuctions = itemService.findExpiredAuctionIds();
         logger.info("Found {} expired auctions", expiredAuctions.size());
-        
-        for (Item item : expiredAuctions) {
-            try {
-                logger.info("Processing expired auction for item ID: {}", item.getItemId());
-                auctionResultService.createAuctionResult(item.getItemId());
-                logger.info("Successfully processed auction for item ID: {}", item.getItemId());
-            } catch (Exception e) {
-                logger.error("Error processing auction for item ID: {}", item.getItemId(), e);
-            }
+        if (expiredAuctions.isEmpty()) {
+            return;
         }
+
+        AuctionCloser.CloseRun run = auctionCloser.closeExpired(expiredAuctions, "sweep").join();
+        logger.info("Processed expired auctions: {}", run);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+package com.auction.service;
+
+import com.auction.model.BidMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes accepted bids to WebSocket subscribers, to the Server-Sent Events
+ * streams of {@link BidStreamHub} and, when enabled, to the other backend nodes
+ * through {@link BidNotifyPublisher}. Every bid acceptance path goes
+ * through here so the topics and payload stay the same regardless of how the bid
+ * was accepted. A bid published inside a transaction is only sent once that
+ * transaction commits, so a bid that rolls back is never sent, buffered for
+ * replay or relayed to the other nodes.
+ *
+ * With bid.broadcast.conflation-ms above zero, bids are not sent right away. Each
+ * item has a latest-value slot that accepting threads swap with a CAS, folding
+ * the bid count of the update they replace into the new one, and a single
+ * publisher thread drains every slot once per interval. A hot item then costs one
+ * frame per topic per interval, carrying the latest price and the number of bids
+ * since the previous frame, however many bids were accepted in between.
+ *
+ * A frame is serialized once, with the messaging template's converter, and the
+ * same message is then sent to every destination and stream; the broker and the
+ * SSE writers only ever read its payload.
+ */
+@Component
+public class BidBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidBroadcaster.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final BidReplayBuffer bidReplayBuffer;
+    private final BidStreamHub bidStreamHub;
+    private final BidNotifyPublisher bidNotifyPublisher;
+    private final Map<Long, AtomicReference<BidMessage>> latest = new ConcurrentHashMap<>();
+
+    @Value("${bid.broadcast.conflation-ms:0}")
+    private long conflationMs;
+
+    @Value("${bid.broadcast.global-topic:true}")
+    private boolean globalTopic;
+
+    private ScheduledExecutorService publisher;
+
+    public BidBroadcaster(
+            SimpMessagingTemplate messagingTemplate,
+            BidReplayBuffer bidReplayBuffer,
+            BidStreamHub bidStreamHub,
+            BidNotifyPublisher bidNotifyPublisher) {
+        this.messagingTemplate = messagingTemplate;
+        this.bidReplayBuffer = bidReplayBuffer;
+        this.bidStreamHub = bidStreamHub;
+        this.bidNotifyPublisher = bidNotifyPublisher;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (conflationMs <= 0) {
+            return;
+        }
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bid-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleAtFixedRate(this::drain, conflationMs, conflationMs, TimeUnit.MILLISECONDS);
+        logger.info("Conflating bid broadcasts every {} ms", conflationMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (publisher != null) {
+            publisher.shutdown();
+            publisher.awaitTermination(5, TimeUnit.SECONDS);
+            drain();
+        }
+    }
+
+    /**
+     * Publishes the item's new leading bid; bids is the number of bids accepted
+     * with it, e.g. two when a proxy bid answered the bid right away. Each of the
+     * displaced bidders other than the new leader, typically the previous leader,
+     * is sent the bid on /user/{userId}/queue/outbid; nulls are skipped.
+     */
+    public void publish(Long itemId, Long itemBidId, Long bidderId, String bidderName, BigDecimal amount, int bids,
+                        Long... displacedBidderIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // The bid is committed by now, so a failed broadcast must not fail its caller
+                    try {
+                        publishNow(itemId, itemBidId, bidderId, bidderName, amount, bids, displacedBidderIds);
+                    } catch (RuntimeException e) {
+                        logger.warn("Failed to broadcast bid update for item {}: {}", itemId, e.getMessage());
+                    }
+                }
+            });
+        } else {
+            publishNow(itemId, itemBidId, bidderId, bidderName, amount, bids, displacedBidderIds);
+        }
+    }
+
+    private void publishNow(Long itemId, Long itemBidId, Long bidderId, String bidderName, BigDecimal amount, int bids,
+                            Long... displacedBidderIds) {
+        BidMessage bidMessage = new BidMessage();
+        bidMessage.setItemId(itemId);
+        bidMessage.setItemBidId(itemBidId);
+        bidMessage.setAmount(amount.doubleValue());
+        bidMessage.setBidderId(bidderId);
+        bidMessage.setBidderName(bidderName);
+        bidMessage.setBidCountDelta(bids);
+
+        // Encoded before the bid count below can change, shared with the broadcast when not conflating
+        Message<?> encoded = encode(bidMessage);
+
+        // Never conflated: each one is the only message its recipient gets for this bid
+        Arrays.stream(displacedBidderIds)
+                .filter(displaced -> displaced != null && !displaced.equals(bidderId))
+                .distinct()
+                .forEach(displaced -> notifyOutbid(displaced, bidMessage, encoded));
+
+        if (publisher == null) {
+            send(bidMessage, encoded);
+            return;
+        }
+        AtomicReference<BidMessage> slot = latest.computeIfAbsent(itemId, id -> new AtomicReference<>());
+        BidMessage replaced;
+        do {
+            replaced = slot.get();
+            bidMessage.setBidCountDelta(replaced == null ? bids : replaced.getBidCountDelta() + bids);
+        } while (!slot.compareAndSet(replaced, bidMessage));
+    }
+
+    // Slots stay in the map once created, so a bid is never swapped into a slot nobody drains
+    private void drain() {
+        for (AtomicReference<BidMessage> slot : latest.values()) {
+            BidMessage bidMessage = slot.getAndSet(null);
+            if (bidMessage != null) {
+                try {
+                    send(bidMessage, encode(bidMessage));
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to broadcast bid update for item {}: {}", bidMessage.getItemId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void notifyOutbid(Long bidderId, BidMessage bidMessage, Message<?> encoded) {
+        try {
+            // What convertAndSendToUser sends to, without converting the payload again
+            messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + bidderId + "/queue/outbid", encoded);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to notify bidder {} of being outbid on item {}: {}",
+                    bidderId, bidMessage.getItemId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a bid frame to this node's subscribers only, e.g. one relayed from
+     * another node by {@link BidNotifyListener}.
+     */
+    public void deliver(BidMessage bidMessage) {
+        deliver(bidMessage, encode(bidMessage));
+    }
+
+    private void deliver(BidMessage bidMessage, Message<?> encoded) {
+        // Buffered before it is sent, so a client resuming meanwhile gets it at least once
+        bidReplayBuffer.record(bidMessage);
+        // Every bid of every item goes to the general topic, so it is only sent when enabled
+        if (globalTopic) {
+            messagingTemplate.send("/topic/bidUpdates", encoded);
+        }
+        messagingTemplate.send("/topic/bid/" + bidMessage.getItemId(), encoded);
+        bidStreamHub.publish(bidMessage, (byte[]) encoded.getPayload());
+    }
+
+    private void send(BidMessage bidMessage, Message<?> encoded) {
+        deliver(bidMessage, encoded);
+        bidNotifyPublisher.publish(bidMessage);
+    }
+
+    /**
+     * Serializes the frame the way convertAndSend would. The headers are left
+     * immutable, so every send copies them to add its destination and the payload
+     * array is shared.
+     */
+    private Message<?> encode(BidMessage bidMessage) {
+        Message<?> encoded = messagingTemplate.getMessageConverter().toMessage(bidMessage, null);
+        if (encoded == null || !(encoded.getPayload() instanceof byte[])) {
+            throw new MessageConversionException("Cannot convert bid message to a byte[] payload");
+        }
+        return encoded;
+    }
+}
@@ -0,0 +1,411 @@
+package com.auction.service;
+
+import com.auction.exception.ResourceNotFoundException;
+import com.auction.model.AcceptedBid;
+import com.auction.model.Bid;
+import com.auction.model.Item;
+import com.auction.model.User;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.ProxyBidRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * In-memory bid engine. Items are partitioned across a fixed number of shards by
+ * itemId and every shard is served by exactly one thread, so all bids for an item
+ * are validated and accepted in arrival order without locks or database reads.
+ * The current high bid of each item is loaded once, on the first bid the shard
+ * sees for it, and accepted bids are handed to {@link BidWriteBehind} for
+ * asynchronous persistence. Proxy (maximum) bids are kept in the same book and
+ * resolved on the shard with {@link ProxyBidResolver}, so a bidding war between
+ * proxies costs one write-behind entry and one broadcast.
+ *
+ * Bids are numbered on the shard as well, continuing from the item's
+ * last_item_bid_id (or the latest unwritten bid), and a number is only used once
+ * the write-behind took the bid, so the numbers stay gap-free while the node is
+ * up. The engine assumes it is the only writer for the items it serves: with
+ * bid.acceptance.mode=ENGINE it holds a database advisory lock for as long as it
+ * runs, and a second node started in that mode fails at startup instead of
+ * accepting bids from a stale book and handing out the same numbers twice.
+ */
+@Component
+public class BidEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidEngine.class);
+
+    // Advisory lock key of the ENGINE node; any constant no other code locks will do
+    private static final long NODE_LOCK_KEY = 0x4269644567696eL;
+
+    private final ItemRepository itemRepository;
+    private final ProxyBidRepository proxyBidRepository;
+    private final ProxyBidResolver proxyBidResolver;
+    private final BidBroadcaster bidBroadcaster;
+    private final BidWriteBehind bidWriteBehind;
+    private final DataSource dataSource;
+
+    @Value("${bid.acceptance.mode:TRANSACTIONAL}")
+    private BidService.AcceptanceMode acceptanceMode;
+
+    @Value("${bid.engine.shards:4}")
+    private int shardCount;
+
+    @Value("${bid.engine.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private Shard[] shards;
+    // Holds the single-node advisory lock in ENGINE mode
+    private Connection nodeLock;
+
+    public BidEngine(
+            ItemRepository itemRepository,
+            ProxyBidRepository proxyBidRepository,
+            ProxyBidResolver proxyBidResolver,
+            BidBroadcaster bidBroadcaster,
+            BidWriteBehind bidWriteBehind,
+            DataSource dataSource) {
+        this.itemRepository = itemRepository;
+        this.proxyBidRepository = proxyBidRepository;
+        this.proxyBidResolver = proxyBidResolver;
+        this.bidBroadcaster = bidBroadcaster;
+        this.bidWriteBehind = bidWriteBehind;
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void start() throws SQLException {
+        if (acceptanceMode == BidService.AcceptanceMode.ENGINE) {
+            lockNode();
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+        logger.info("Bid engine started with {} shards", shardCount);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            shard.executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (nodeLock != null) {
+            // Closing the session releases the lock
+            try {
+                nodeLock.close();
+            } catch (SQLException e) {
+                logger.warn("Could not release the bid engine lock: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Session-level, so it lasts as long as the connection; the connection stays out of the pool until shutdown
+    private void lockNode() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        boolean locked;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, NODE_LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                locked = result.next() && result.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        if (!locked) {
+            connection.close();
+            throw new IllegalStateException(
+                    "Another node already accepts bids with bid.acceptance.mode=ENGINE; only one may run in that mode");
+        }
+        nodeLock = connection;
+    }
+
+    /**
+     * Submits a bid to the shard that owns the item. The returned future completes
+     * with the accepted (not yet persisted) bid, or exceptionally with the same
+     * exceptions the transactional path throws for invalid bids.
+     */
+    public CompletableFuture<Bid> submit(Long itemId, User bidder, BigDecimal amount) {
+        return onShard(itemId, shard -> shard.accept(itemId, bidder, amount));
+    }
+
+    /**
+     * Registers or raises a bidder's maximum for an item and lets the proxies bid.
+     * The future completes once the maximum is in the book; storing the proxy bid
+     * itself is up to the caller.
+     */
+    public CompletableFuture<Void> submitProxy(Long itemId, ProxyBidResolver.Proxy proxy) {
+        return onShard(itemId, shard -> {
+            shard.acceptProxy(itemId, proxy);
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> onShard(Long itemId, Function<Shard, T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Shard shard = shardFor(itemId);
+        try {
+            shard.executor.execute(() -> {
+                try {
+                    result.complete(task.apply(shard));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IllegalStateException("Too many bids in progress, please retry"));
+        }
+        return result;
+    }
+
+    /**
+     * Prepares the given items for settlement: the engine stops accepting bids for
+     * them, and the bids it already accepted are written to the database before
+     * this returns, so a close that reads the item and its bids sees the final
+     * state. Returns the items that were drained within the timeout; the others
+     * are best left for a later attempt. Bids stay refused for every given item
+     * until it is evicted, which the caller must do whether or not it closed it.
+     */
+    public List<Long> drain(List<Long> itemIds, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Map<Long, CompletableFuture<Void>> closing = new LinkedHashMap<>();
+        for (Long itemId : itemIds) {
+            closing.put(itemId, onShard(itemId, shard -> {
+                shard.close(itemId);
+                return null;
+            }));
+        }
+
+        List<Long> drained = new ArrayList<>(itemIds.size());
+        for (Map.Entry<Long, CompletableFuture<Void>> entry : closing.entrySet()) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                // Once the shard has closed the book, every bid it accepted is queued for writing
+                entry.getValue().get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                continue;
+            }
+            remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (bidWriteBehind.awaitFlushed(entry.getKey(), remaining)) {
+                drained.add(entry.getKey());
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Drops the cached state of an item so the next bid reloads it from the
+     * database. Call this whenever the item's status, dates, price or bids change
+     * outside the engine. Inside a transaction the eviction is deferred until the
+     * transaction completes, so the shard cannot reload the row before a change is
+     * visible. Bids the engine accepted that are not written yet are kept; see
+     * {@link #load}.
+     */
+    public void evict(Long itemId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Also after a rollback, which may leave a book that drain() closed
+                    evictNow(itemId);
+                }
+            });
+        } else {
+            evictNow(itemId);
+        }
+    }
+
+    private void evictNow(Long itemId) {
+        Shard shard = shardFor(itemId);
+        try {
+            shard.executor.execute(() -> shard.books.remove(itemId));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Could not evict item {} from bid engine: {}", itemId, e.getMessage());
+        }
+    }
+
+    private Shard shardFor(Long itemId) {
+        return shards[Math.floorMod(itemId.hashCode(), shards.length)];
+    }
+
+    /**
+     * Reads the item's state from the database. Bids still queued in the
+     * write-behind are not in the row yet, so the latest of them, if any, stays
+     * the high bid and holds the last number; it is read before the row, so a
+     * flush in between is seen in one or the other.
+     */
+    private AuctionBook load(Long itemId) {
+        AcceptedBid unflushed = bidWriteBehind.unflushed(itemId);
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
+        AuctionBook book = new AuctionBook();
+        book.title = item.getTitle();
+        book.status = item.getItemStatus();
+        book.startingPrice = item.getStartingPrice();
+        book.endDate = item.getEndDate();
+        book.highestBid = item.getCurrentHighestBid();
+        book.leaderId = item.getLeadingBidderId();
+        book.lastItemBidId = item.getLastItemBidId() != null ? item.getLastItemBidId() : 0L;
+        if (unflushed != null && (book.highestBid == null || unflushed.getAmount().compareTo(book.highestBid) > 0)) {
+            book.highestBid = unflushed.getAmount();
+            book.leaderId = unflushed.getBidderId();
+        }
+        if (unflushed != null) {
+            book.lastItemBidId = Math.max(book.lastItemBidId, unflushed.getItemBidId());
+        }
+        proxyBidRepository.findByItemIdWithBidder(itemId)
+                .forEach(proxyBid -> book.proxies.put(proxyBid.getBidder().getUserId(), ProxyBidResolver.Proxy.of(proxyBid)));
+        return book;
+    }
+
+    /**
+     * Per-item state. Only ever touched by the owning shard's thread.
+     */
+    private static final class AuctionBook {
+        private String title;
+        private Item.ItemStatus status;
+        private BigDecimal startingPrice;
+        private LocalDateTime endDate;
+        private BigDecimal highestBid;
+        private Long leaderId;
+        private long lastItemBidId;
+        private final Map<Long, ProxyBidResolver.Proxy> proxies = new LinkedHashMap<>();
+
+        private void validate(BigDecimal amount) {
+            BidService.validateBid(status, endDate, startingPrice, highestBid, amount);
+        }
+
+        /**
+         * Builds the detached bid returned to the caller. The item is a copy of the
+         * cached fields so callers never see another thread's entity.
+         */
+        private Bid toBid(Long itemId, Long itemBidId, User bidder, BigDecimal amount, LocalDateTime bidTime) {
+            Item item = new Item();
+            item.setItemId(itemId);
+            item.setTitle(title);
+            item.setStartingPrice(startingPrice);
+            item.setItemStatus(status);
+            item.setEndDate(endDate);
+
+            Bid bid = new Bid();
+            bid.setItem(item);
+            bid.setBidder(bidder);
+            bid.setAmount(amount);
+            bid.setBidDate(bidTime);
+            bid.setItemBidId(itemBidId);
+            return bid;
+        }
+    }
+
+    private final class Shard {
+
+        private final ThreadPoolExecutor executor;
+        private final Map<Long, AuctionBook> books = new HashMap<>();
+
+        private Shard(int index, int capacity) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "bid-engine-" + index);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        private AuctionBook book(Long itemId) {
+            AuctionBook book = books.get(itemId);
+            if (book == null) {
+                book = load(itemId);
+                books.put(itemId, book);
+            }
+            return book;
+        }
+
+        // Refuses further bids until the item is evicted; the book may not be loaded at all
+        private void close(Long itemId) {
+            books.computeIfAbsent(itemId, id -> new AuctionBook()).status = Item.ItemStatus.ENDED;
+        }
+
+        private Bid accept(Long itemId, User bidder, BigDecimal amount) {
+            AuctionBook book = book(itemId);
+            book.validate(amount);
+
+            ProxyBidResolver.Response response = proxyBidResolver.resolve(
+                    book.startingPrice, amount, bidder.getUserId(), book.proxies.values());
+            // Database timestamps keep microseconds; truncate so journal replays match stored rows
+            LocalDateTime bidTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            AcceptedBid accepted = new AcceptedBid(itemId, book.lastItemBidId + 1, bidder.getUserId(),
+                    bidder.getUsername(), amount, bidTime);
+
+            // Enqueue first: with the journal enabled this is the durability point and may refuse the bid
+            if (response == null) {
+                bidWriteBehind.enqueue(accepted);
+                publish(book, itemId, accepted, 1, book.leaderId);
+            } else {
+                AcceptedBid proxyBid = new AcceptedBid(itemId, book.lastItemBidId + 2, response.bidderId(),
+                        response.bidderName(), response.amount(), bidTime);
+                bidWriteBehind.enqueue(accepted, proxyBid);
+                publish(book, itemId, proxyBid, 2, book.leaderId, bidder.getUserId());
+            }
+            return book.toBid(itemId, accepted.getItemBidId(), bidder, amount, bidTime);
+        }
+
+        private void acceptProxy(Long itemId, ProxyBidResolver.Proxy proxy) {
+            AuctionBook book = book(itemId);
+            book.validate(proxy.maxAmount());
+
+            Map<Long, ProxyBidResolver.Proxy> proxies = new LinkedHashMap<>(book.proxies);
+            proxies.put(proxy.bidderId(), proxy);
+            ProxyBidResolver.Response response = proxyBidResolver.resolve(
+                    book.startingPrice, book.highestBid, book.leaderId, proxies.values());
+
+            if (response != null) {
+                AcceptedBid proxyBid = new AcceptedBid(itemId, book.lastItemBidId + 1, response.bidderId(),
+                        response.bidderName(), response.amount(), LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+                bidWriteBehind.enqueue(proxyBid);
+                publish(book, itemId, proxyBid, 1, book.leaderId, proxy.bidderId());
+            }
+            book.proxies.put(proxy.bidderId(), proxy);
+        }
+
+        // Broadcast from the shard thread so subscribers see bids in acceptance order. Only
+        // called once the write-behind took the bids, so their numbers are now used.
+        private void publish(AuctionBook book, Long itemId, AcceptedBid leading, int bids, Long... displaced) {
+            book.highestBid = leading.getAmount();
+            book.leaderId = leading.getBidderId();
+            book.lastItemBidId = leading.getItemBidId();
+            bidBroadcaster.publish(itemId, leading.getItemBidId(), leading.getBidderId(), leading.getBidderName(),
+                    leading.getAmount(), bids, displaced);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.auction.service;
+
+import com.auction.exception.ResourceNotFoundException;
+import com.auction.model.Bid;
+import com.auction.model.Item;
+import com.auction.model.ProxyBid;
+import com.auction.model.User;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.ProxyBidRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for bids. Bids for the same item that arrive within a short window
+ * are collected and accepted or rejected together, in arrival order, in a single
+ * transaction: one locked read of the item, one JDBC batch insert for every bid
+ * that made it and one update of the item's aggregates. Only the item's final
+ * state is broadcast, while every caller still gets its own bid or exception.
+ *
+ * Batches are flushed on a fixed set of single-threaded executors keyed by itemId,
+ * so the batches of one item are committed one after another in window order.
+ */
+@Component
+public class BidGroupCommitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidGroupCommitter.class);
+
+    private static final String INSERT_BID =
+            "INSERT INTO bids (item_id, bidder_id, bid_amount, bid_time, item_bid_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final ItemRepository itemRepository;
+    private final ProxyBidRepository proxyBidRepository;
+    private final ProxyBidResolver proxyBidResolver;
+    private final BidBroadcaster bidBroadcaster;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, List<PendingBid>> pending = new ConcurrentHashMap<>();
+
+    @Value("${bid.group-commit.window-ms:5}")
+    private long windowMs;
+
+    @Value("${bid.group-commit.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${bid.group-commit.threads:4}")
+    private int threadCount;
+
+    private ScheduledExecutorService[] flushers;
+
+    public BidGroupCommitter(
+            ItemRepository itemRepository,
+            ProxyBidRepository proxyBidRepository,
+            ProxyBidResolver proxyBidResolver,
+            BidBroadcaster bidBroadcaster,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate) {
+        this.itemRepository = itemRepository;
+        this.proxyBidRepository = proxyBidRepository;
+        this.proxyBidResolver = proxyBidResolver;
+        this.bidBroadcaster = bidBroadcaster;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        flushers = new ScheduledExecutorService[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            String name = "bid-group-commit-" + i;
+            flushers[i] = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Already scheduled windows still run on shutdown, so no caller is left waiting
+        for (ScheduledExecutorService flusher : flushers) {
+            flusher.shutdown();
+        }
+        for (ScheduledExecutorService flusher : flushers) {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Adds a bid to the item's current window. The first bid of a window schedules
+     * its flush; a window that reaches the maximum batch size is flushed at once.
+     */
+    public CompletableFuture<Bid> submit(Long itemId, User bidder, BigDecimal amount) {
+        PendingBid bid = new PendingBid(bidder, amount);
+        ScheduledExecutorService flusher = flushers[Math.floorMod(itemId.hashCode(), flushers.length)];
+        pending.compute(itemId, (id, window) -> {
+            if (window == null) {
+                window = new ArrayList<>();
+                flusher.schedule(() -> flush(id, pending.remove(id)), windowMs, TimeUnit.MILLISECONDS);
+            }
+            window.add(bid);
+            if (window.size() >= maxBatch) {
+                List<PendingBid> full = window;
+                flusher.execute(() -> flush(id, full));
+                return null;
+            }
+            return window;
+        });
+        return bid.result;
+    }
+
+    private void flush(Long itemId, List<PendingBid> batch) {
+        if (batch == null || batch.isEmpty()) {
+            // Taken early by a full window
+            return;
+        }
+        Batch outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> accept(itemId, batch));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to commit {} bids for item {}: {}", batch.size(), itemId, e.getMessage());
+            batch.forEach(bid -> bid.result.completeExceptionally(e));
+            return;
+        }
+
+        // Only the state after the whole batch is of interest to subscribers
+        if (outcome.leading != null) {
+            bidBroadcaster.publish(itemId, outcome.leading.itemBidId, outcome.leading.bidderId,
+                    outcome.leading.bidderName, outcome.leading.amount, outcome.bids,
+                    outcome.displaced.toArray(new Long[0]));
+        }
+        for (PendingBid bid : batch) {
+            if (bid.rejection != null) {
+                bid.result.completeExceptionally(bid.rejection);
+            } else {
+                bid.result.complete(bid.toBid(outcome.item));
+            }
+        }
+    }
+
+    /**
+     * Validates the batch in order against the locked item, lets standing proxy bids
+     * answer every accepted bid, and writes all resulting bids and the aggregates.
+     */
+    private Batch accept(Long itemId, List<PendingBid> batch) {
+        Item item = itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
+        Map<Long, ProxyBidResolver.Proxy> proxies = new LinkedHashMap<>();
+        for (ProxyBid proxyBid : proxyBidRepository.findByItemIdWithBidder(itemId)) {
+            proxies.put(proxyBid.getBidder().getUserId(), ProxyBidResolver.Proxy.of(proxyBid));
+        }
+
+        BigDecimal highestBid = item.getCurrentHighestBid();
+        List<Row> rows = new ArrayList<>();
+        for (PendingBid bid : batch) {
+            try {
+                BidService.validateBid(item.getItemStatus(), item.getEndDate(), item.getStartingPrice(),
+                        highestBid, bid.amount);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                bid.rejection = e;
+                continue;
+            }
+            LocalDateTime bidTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            bid.row = new Row(bid.bidder.getUserId(), bid.bidder.getUsername(), bid.amount, bidTime);
+            rows.add(bid.row);
+
+            ProxyBidResolver.Response response = proxyBidResolver.resolve(
+                    item.getStartingPrice(), bid.amount, bid.bidder.getUserId(), proxies.values());
+            if (response != null) {
+                rows.add(new Row(response.bidderId(), response.bidderName(), response.amount(), bidTime));
+            }
+            highestBid = rows.get(rows.size() - 1).amount;
+        }
+
+        Batch outcome = new Batch(detach(item));
+        if (rows.isEmpty()) {
+            return outcome;
+        }
+        outcome.leading = rows.get(rows.size() - 1);
+        outcome.bids = rows.size();
+        // The item is locked, so the numbers the update takes follow the order the bids are accepted in
+        long itemBidId = itemRepository.applyAcceptedBids(itemId, outcome.leading.amount, outcome.leading.bidderId,
+                        rows.size())
+                .orElseThrow(() -> new IllegalStateException("Cannot bid on an item that is not active"))
+                - rows.size() + 1;
+        for (Row row : rows) {
+            row.itemBidId = itemBidId++;
+        }
+        insert(itemId, rows);
+        // Everyone who led at some point of the batch, of whom only the last one still does
+        outcome.displaced.add(item.getLeadingBidderId());
+        rows.forEach(row -> outcome.displaced.add(row.bidderId));
+        return outcome;
+    }
+
+    // Callers on other threads get a plain copy, never the entity of this transaction
+    private static Item detach(Item item) {
+        Item copy = new Item();
+        copy.setItemId(item.getItemId());
+        copy.setTitle(item.getTitle());
+        copy.setStartingPrice(item.getStartingPrice());
+        copy.setItemStatus(item.getItemStatus());
+        copy.setEndDate(item.getEndDate());
+        return copy;
+    }
+
+    private void insert(Long itemId, List<Row> rows) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_BID, new String[] {"bid_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Row row = rows.get(i);
+                        ps.setLong(1, itemId);
+                        ps.setLong(2, row.bidderId);
+                        ps.setBigDecimal(3, row.amount);
+                        ps.setTimestamp(4, Timestamp.valueOf(row.bidTime));
+                        ps.setLong(5, row.itemBidId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < rows.size() && i < generated.size(); i++) {
+            rows.get(i).bidId = ((Number) generated.get(i).get("bid_id")).longValue();
+        }
+    }
+
+    private static final class PendingBid {
+        private final User bidder;
+        private final BigDecimal amount;
+        private final CompletableFuture<Bid> result = new CompletableFuture<>();
+        private RuntimeException rejection;
+        private Row row;
+
+        private PendingBid(User bidder, BigDecimal amount) {
+            this.bidder = bidder;
+            this.amount = amount;
+        }
+
+        private Bid toBid(Item item) {
+            Bid bid = new Bid();
+            bid.setBidId(row.bidId);
+            bid.setItem(item);
+            bid.setBidder(bidder);
+            bid.setAmount(amount);
+            bid.setBidDate(row.bidTime);
+            bid.setItemBidId(row.itemBidId);
+            return bid;
+        }
+    }
+
+    // A bid row to insert: an accepted bid or the proxy bid that answered it
+    private static final class Row {
+        private final Long bidderId;
+        private final String bidderName;
+        private final BigDecimal amount;
+        private final LocalDateTime bidTime;
+        private Long itemBidId;
+        private Long bidId;
+
+        private Row(Long bidderId, String bidderName, BigDecimal amount, LocalDateTime bidTime) {
+            this.bidderId = bidderId;
+            this.bidderName = bidderName;
+            this.amount = amount;
+            this.bidTime = bidTime;
+        }
+    }
+
+    private static final class Batch {
+        private final Item item;
+        private final Set<Long> displaced = new LinkedHashSet<>();
+        private Row leading;
+        private int bids;
+
+        private Batch(Item item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.auction.service;
+
+import com.auction.model.AcceptedBid;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of accepted bids in a memory-mapped file of fixed-size
+ * records. Appending is a handful of stores into the page cache, so the engine
+ * can acknowledge a bid as soon as it is journaled; {@link BidWriteBehind} moves
+ * the journal into the bids table in batches and advances the flushed watermark.
+ * Whatever lies above the watermark on startup is replayed.
+ *
+ * The file is a ring: a 4 KB header followed by {@code capacity} records. Slots
+ * are reused once their bids have been flushed, and appends are refused while
+ * the ring is full of unflushed bids.
+ */
+@Component
+public class BidJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidJournal.class);
+
+    private static final long MAGIC = 0x4249444A524E4C32L; // "BIDJRNL2"
+    private static final int HEADER_SIZE = 4096;
+    private static final int RECORD_SIZE = 64;
+
+    // Header layout
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int RECORD_SIZE_OFFSET = 12;
+    private static final int FLUSHED_OFFSET = 16;
+
+    // Record layout; the CRC covers everything before it
+    private static final int SEQUENCE = 0;
+    private static final int ITEM_ID = 8;
+    private static final int BIDDER_ID = 16;
+    private static final int UNSCALED_AMOUNT = 24;
+    private static final int SCALE = 32;
+    private static final int EPOCH_SECOND = 36;
+    private static final int NANO = 44;
+    private static final int ITEM_BID_ID = 48;
+    private static final int CRC = 56;
+
+    @Value("${bid.journal.path:data/bid-journal.dat}")
+    private String path;
+
+    @Value("${bid.journal.capacity:1048576}")
+    private int capacity;
+
+    @Value("${bid.journal.force-on-append:false}")
+    private boolean forceOnAppend;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSequence;
+    private long flushedSequence;
+
+    /**
+     * Maps the journal file, creating it if needed, and returns the bids that were
+     * journaled but not flushed before the last shutdown, in journal order.
+     */
+    public synchronized List<Recovered> open() {
+        Path file = Paths.get(path);
+        long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Bid journal capacity " + capacity + " exceeds the maximum mapping size");
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            boolean created = !Files.exists(file);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (created || buffer.getLong(MAGIC_OFFSET) == 0) {
+                buffer.putLong(MAGIC_OFFSET, MAGIC);
+                buffer.putInt(CAPACITY_OFFSET, capacity);
+                buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+                buffer.putLong(FLUSHED_OFFSET, 0L);
+                buffer.force();
+            } else if (buffer.getLong(MAGIC_OFFSET) != MAGIC
+                    || buffer.getInt(CAPACITY_OFFSET) != capacity
+                    || buffer.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+                throw new IllegalStateException("Bid journal " + file + " was written with a different layout");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open bid journal " + file, e);
+        }
+
+        flushedSequence = buffer.getLong(FLUSHED_OFFSET);
+        List<Recovered> unflushed = new ArrayList<>();
+        long highest = flushedSequence;
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = HEADER_SIZE + slot * RECORD_SIZE;
+            long sequence = buffer.getLong(offset + SEQUENCE);
+            if (sequence <= flushedSequence) {
+                continue;
+            }
+            if (buffer.getInt(offset + CRC) != checksum(offset)) {
+                logger.warn("Skipping torn bid journal record {} in slot {}", sequence, slot);
+                continue;
+            }
+            unflushed.add(new Recovered(sequence, read(offset)));
+            highest = Math.max(highest, sequence);
+        }
+        unflushed.sort(Comparator.comparingLong(Recovered::sequence));
+        nextSequence = highest + 1;
+        logger.info("Opened bid journal {} ({} records, {} unflushed)", file, capacity, unflushed.size());
+        return unflushed;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Journals accepted bids, all or none. Throws IllegalStateException when the
+     * ring does not have room for them next to the bids that have not been
+     * flushed to the database yet.
+     */
+    public synchronized void append(AcceptedBid... bids) {
+        if (nextSequence - 1 + bids.length - flushedSequence > capacity) {
+            throw new IllegalStateException("Bid journal is full, please retry");
+        }
+        for (AcceptedBid bid : bids) {
+            write(nextSequence++, bid);
+        }
+    }
+
+    private void write(long sequence, AcceptedBid bid) {
+        int offset = HEADER_SIZE + (int) ((sequence - 1) % capacity) * RECORD_SIZE;
+        // Validated bids have at most two decimals and stay far below Long.MAX_VALUE cents
+        BigDecimal amount = bid.getAmount().setScale(2, RoundingMode.UNNECESSARY);
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.putLong(offset + ITEM_ID, bid.getItemId());
+        buffer.putLong(offset + BIDDER_ID, bid.getBidderId());
+        buffer.putLong(offset + UNSCALED_AMOUNT, amount.unscaledValue().longValueExact());
+        buffer.putInt(offset + SCALE, amount.scale());
+        buffer.putLong(offset + EPOCH_SECOND, bid.getBidTime().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(offset + NANO, bid.getBidTime().getNano());
+        buffer.putLong(offset + ITEM_BID_ID, bid.getItemBidId());
+        buffer.putInt(offset + CRC, checksum(offset));
+        if (forceOnAppend) {
+            buffer.force(offset, RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Advances the flushed watermark by the given number of records. Records are
+     * flushed in journal order, so this releases the oldest unflushed slots.
+     */
+    public synchronized void release(int records) {
+        markFlushed(flushedSequence + records);
+    }
+
+    public synchronized void markFlushed(long sequence) {
+        flushedSequence = sequence;
+        buffer.putLong(FLUSHED_OFFSET, sequence);
+    }
+
+    public synchronized long unflushed() {
+        return nextSequence - 1 - flushedSequence;
+    }
+
+    private AcceptedBid read(int offset) {
+        BigDecimal amount = new BigDecimal(BigInteger.valueOf(buffer.getLong(offset + UNSCALED_AMOUNT)),
+                buffer.getInt(offset + SCALE));
+        LocalDateTime bidTime = LocalDateTime.ofEpochSecond(buffer.getLong(offset + EPOCH_SECOND),
+                buffer.getInt(offset + NANO), ZoneOffset.UTC);
+        // The bidder name is only needed for broadcasts, which happened before the crash
+        return new AcceptedBid(buffer.getLong(offset + ITEM_ID), buffer.getLong(offset + ITEM_BID_ID),
+                buffer.getLong(offset + BIDDER_ID),
+                null, amount, bidTime);
+    }
+
+    private int checksum(int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, CRC));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A bid read back from the journal together with its journal sequence.
+     */
+    public record Recovered(long sequence, AcceptedBid bid) {
+    }
+}
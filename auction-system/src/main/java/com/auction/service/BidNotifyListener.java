@@ -0,0 +1,162 @@
+package com.auction.service;
+
+import com.auction.model.BidMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Receives the bid frames other backend nodes publish with {@link BidNotifyPublisher}
+ * and broadcasts them to this node's subscribers, like the frames of bids accepted
+ * here. A dedicated thread holds one connection LISTENing on the channel and
+ * reconnects if it is lost; frames published while it was away are not recovered.
+ *
+ * Frames are deduplicated by the sending node's run and the frame's number in it,
+ * which increases in the order that node sent them: a frame at or below the last
+ * seen from its run is dropped. Frames of one item accepted on different nodes are
+ * relayed as they arrive, whatever their itemBidIds; ordering them is left to the
+ * clients, which already drop frames below the last itemBidId they have seen.
+ */
+@Component
+public class BidNotifyListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidNotifyListener.class);
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final BidNotifyPublisher bidNotifyPublisher;
+    private final BidBroadcaster bidBroadcaster;
+
+    // Runs of other nodes remembered; older ones are dropped beyond this
+    private static final int MAX_RUNS = 256;
+
+    // Number of the last frame relayed per sending node run; only touched on the listener thread
+    private final Map<String, Long> lastSeen = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_RUNS;
+        }
+    };
+
+    @Value("${bid.notify.enabled:false}")
+    private boolean enabled;
+
+    @Value("${bid.notify.poll-ms:500}")
+    private int pollMs;
+
+    @Value("${bid.notify.reconnect-ms:5000}")
+    private long reconnectMs;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public BidNotifyListener(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            BidNotifyPublisher bidNotifyPublisher,
+            BidBroadcaster bidBroadcaster) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.bidNotifyPublisher = bidNotifyPublisher;
+        this.bidBroadcaster = bidBroadcaster;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "bid-notify-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener.join(pollMs * 2L);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + BidNotifyPublisher.CHANNEL);
+                }
+                logger.info("Listening for bid events on channel {}", BidNotifyPublisher.CHANNEL);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Bid event listener lost its connection, reconnecting in {} ms: {}",
+                        reconnectMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void handle(String payload) {
+        JsonNode events;
+        try {
+            events = objectMapper.readTree(payload);
+        } catch (IOException e) {
+            logger.warn("Dropping malformed bid events: {}", e.getMessage());
+            return;
+        }
+        if (bidNotifyPublisher.getNodeId().equals(events.path("node").asText())) {
+            return;
+        }
+        String run = events.path("node").asText() + "/" + events.path("run").asText();
+        long sequence = events.path("seq").asLong();
+        for (JsonNode event : events.path("bids")) {
+            try {
+                if (isNew(run, sequence++)) {
+                    bidBroadcaster.deliver(objectMapper.treeToValue(event, BidMessage.class));
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to relay bid event {}: {}", event, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isNew(String run, long sequence) {
+        Long seen = lastSeen.get(run);
+        if (seen != null && sequence <= seen) {
+            return false;
+        }
+        lastSeen.put(run, sequence);
+        return true;
+    }
+}
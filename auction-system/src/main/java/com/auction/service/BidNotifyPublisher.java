@@ -0,0 +1,153 @@
+package com.auction.service;
+
+import com.auction.model.BidMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the bid frames broadcast on this node to the other backend nodes over
+ * PostgreSQL NOTIFY, so each of them can re-broadcast them to its own subscribers
+ * (see {@link BidNotifyListener}). Enabled with bid.notify.enabled; meant for the
+ * SIMPLE broker mode, where topics are otherwise local to a node.
+ *
+ * Frames are queued and sent by a single thread every bid.notify.batch-ms, packed
+ * into as few notifications as fit the 8000 byte payload limit. A payload carries
+ * the sending node's id, so a node ignores its own notifications, and a run id that
+ * is new every time the node starts. Frames are numbered per run, in the order they
+ * are sent; a payload carries the number of its first frame as "seq".
+ */
+@Component
+public class BidNotifyPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidNotifyPublisher.class);
+
+    static final String CHANNEL = "bid_events";
+
+    // PostgreSQL rejects payloads of 8000 bytes and more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    // Room left in a payload for the digits of its sequence number
+    private static final int SEQ_BYTES = 20;
+
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Queue<BidMessage> pending = new ConcurrentLinkedQueue<>();
+
+    @Value("${bid.notify.enabled:false}")
+    private boolean enabled;
+
+    @Value("${bid.notify.batch-ms:10}")
+    private long batchMs;
+
+    @Value("${bid.notify.node-id:}")
+    private String nodeId;
+
+    private final String runId = UUID.randomUUID().toString();
+
+    // Start of every payload, up to the sequence number
+    private String envelope;
+    // Number of the last frame sent; only touched by the publisher thread
+    private long sequence;
+    private ScheduledExecutorService publisher;
+
+    public BidNotifyPublisher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws JsonProcessingException {
+        if (nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        envelope = "{\"node\":" + objectMapper.writeValueAsString(nodeId)
+                + ",\"run\":" + objectMapper.writeValueAsString(runId) + ",\"seq\":";
+        if (!enabled) {
+            return;
+        }
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bid-notify");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::flush, batchMs, batchMs, TimeUnit.MILLISECONDS);
+        logger.info("Publishing bid events on channel {} as node {}", CHANNEL, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (publisher != null) {
+            publisher.shutdown();
+            publisher.awaitTermination(5, TimeUnit.SECONDS);
+            flush();
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publish(BidMessage bidMessage) {
+        if (publisher != null) {
+            pending.add(bidMessage);
+        }
+    }
+
+    private void flush() {
+        List<String> batch = new ArrayList<>();
+        int batchBytes = 0;
+        BidMessage bidMessage;
+        while ((bidMessage = pending.poll()) != null) {
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(bidMessage);
+            } catch (JsonProcessingException e) {
+                logger.warn("Could not serialize bid event for item {}: {}", bidMessage.getItemId(), e.getMessage());
+                continue;
+            }
+            int bytes = json.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (!batch.isEmpty() && batchBytes + bytes > MAX_PAYLOAD_BYTES - envelope.length() - SEQ_BYTES) {
+                send(batch);
+                batch.clear();
+                batchBytes = 0;
+            }
+            batch.add(json);
+            batchBytes += bytes;
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private void send(List<String> batch) {
+        // Frames are serialized already, so the envelope is put together by hand
+        String payload = envelope + (sequence + 1) + ",\"bids\":[" + String.join(",", batch) + "]}";
+        // A failed notification keeps its numbers, so the gap is not mistaken for a duplicate
+        sequence += batch.size();
+        try {
+            jdbcTemplate.query(NOTIFY, (RowCallbackHandler) rs -> { }, CHANNEL, payload);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to publish {} bid events: {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.auction.service;
+
+import com.auction.model.BidMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the most recent bid frames of each item, so a client that reconnects can
+ * be sent only the frames it missed. Frames are keyed by their itemBidId, which
+ * increases with every accepted bid; a conflated frame covers several numbers.
+ *
+ * Each item has a ring of bid.replay.buffer-size frames, and rings of the least
+ * recently active items are dropped beyond bid.replay.max-items.
+ */
+@Component
+public class BidReplayBuffer {
+
+    private final int bufferSize;
+    private final Map<Long, Ring> rings;
+
+    public BidReplayBuffer(
+            @Value("${bid.replay.buffer-size:256}") int bufferSize,
+            @Value("${bid.replay.max-items:10000}") int maxItems) {
+        this.bufferSize = bufferSize;
+        this.rings = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ring> eldest) {
+                return size() > maxItems;
+            }
+        };
+    }
+
+    public void record(BidMessage bidMessage) {
+        Ring ring;
+        synchronized (rings) {
+            ring = rings.computeIfAbsent(bidMessage.getItemId(), id -> new Ring(bufferSize));
+        }
+        ring.add(bidMessage);
+    }
+
+    /**
+     * Returns the item's frames after the given sequence number, oldest first, or
+     * null when some of them are no longer buffered (or never were, e.g. before a
+     * restart), in which case the caller has to fall back to a snapshot.
+     */
+    public List<BidMessage> since(Long itemId, long sequence) {
+        Ring ring;
+        synchronized (rings) {
+            ring = rings.get(itemId);
+        }
+        return ring != null ? ring.since(sequence) : null;
+    }
+
+    private static final class Ring {
+        private final BidMessage[] frames;
+        private int start;
+        private int size;
+        // Sequence number just before the oldest buffered frame
+        private long base;
+
+        private Ring(int capacity) {
+            this.frames = new BidMessage[capacity];
+        }
+
+        private synchronized void add(BidMessage bidMessage) {
+            if (size == 0) {
+                base = bidMessage.getItemBidId() - bidMessage.getBidCountDelta();
+            }
+            if (size == frames.length) {
+                base = frames[start].getItemBidId();
+                start = (start + 1) % frames.length;
+                size--;
+            }
+            frames[(start + size) % frames.length] = bidMessage;
+            size++;
+        }
+
+        private synchronized List<BidMessage> since(long sequence) {
+            if (sequence < base) {
+                return null;
+            }
+            List<BidMessage> missed = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                BidMessage frame = frames[(start + i) % frames.length];
+                if (frame.getItemBidId() > sequence) {
+                    missed.add(frame);
+                }
+            }
+            return missed;
+        }
+    }
+}
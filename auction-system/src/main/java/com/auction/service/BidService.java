@@ -1,43 +1,103 @@
 package com.auction.service;
 
+import com.auction.dto.BidDto;
+import com.auction.dto.BidReplayDto;
+import com.auction.dto.KeysetPage;
 import com.auction.dto.UserBidDTO;
-import com.auction.model.BidMessage;
 import com.auction.exception.ResourceNotFoundException;
 import com.auction.model.Bid;
+import com.auction.model.BidMessage;
 import com.auction.model.Item;
+import com.auction.model.ProxyBid;
 import com.auction.model.User;
 import com.auction.repository.BidRepository;
 import com.auction.repository.ItemRepository;
+import com.auction.repository.ProxyBidRepository;
 import com.auction.repository.UserRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 public class BidService {
 
+    static final BigDecimal MAX_BID_AMOUNT = new BigDecimal("999999999999.99");
+
     private final BidRepository bidRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ProxyBidRepository proxyBidRepository;
+    private final ProxyBidResolver proxyBidResolver;
+    private final BidBroadcaster bidBroadcaster;
+    private final BidEngine bidEngine;
+    private final BidGroupCommitter bidGroupCommitter;
+    private final BidReplayBuffer bidReplayBuffer;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bid.acceptance.mode:TRANSACTIONAL}")
+    private AcceptanceMode acceptanceMode;
+
+    @Value("${bid.engine.timeout-ms:5000}")
+    private long engineTimeoutMs;
+
+    @Value("${bid.cas.max-attempts:5}")
+    private int casMaxAttempts;
+
+    @Value("${bid.cas.backoff-ms:5}")
+    private long casBackoffMs;
 
     public BidService(
             BidRepository bidRepository,
             ItemRepository itemRepository,
             UserRepository userRepository,
-            SimpMessagingTemplate messagingTemplate) {
+            ProxyBidRepository proxyBidRepository,
+            ProxyBidResolver proxyBidResolver,
+            BidBroadcaster bidBroadcaster,
+            BidEngine bidEngine,
+            BidGroupCommitter bidGroupCommitter,
+            BidReplayBuffer bidReplayBuffer,
+            TransactionTemplate transactionTemplate) {
         this.bidRepository = bidRepository;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.proxyBidRepository = proxyBidRepository;
+        this.proxyBidResolver = proxyBidResolver;
+        this.bidBroadcaster = bidBroadcaster;
+        this.bidEngine = bidEngine;
+        this.bidGroupCommitter = bidGroupCommitter;
+        this.bidReplayBuffer = bidReplayBuffer;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * How bids are validated and accepted.
+     * TRANSACTIONAL checks each bid against the database in its own transaction.
+     * ENGINE accepts bids in the in-memory {@link BidEngine} and persists them asynchronously.
+     * COMPARE_AND_SET accepts a bid with one conditional UPDATE on the item row and
+     * retries with backoff when a concurrent bid changed the item first.
+     * GROUP_COMMIT collects the bids for an item over a short window and commits them
+     * together in the {@link BidGroupCommitter}.
+     */
+    public enum AcceptanceMode {
+        TRANSACTIONAL, ENGINE, COMPARE_AND_SET, GROUP_COMMIT
     }
 
     // Bid stats aggregation
@@ -49,8 +109,10 @@ public class BidService {
         return new com.auction.dto.BidStatsDto(totalBids, totalValue, activeAuctions, uniqueBidders);
     }
 
-    public List<Bid> getAllBids() {
-        return bidRepository.findAll();
+    public KeysetPage<BidDto> getBids(Long after, Integer limit) {
+        List<BidDto> rows = bidRepository.findDtoPageAfter(
+                KeysetPage.start(after), LocalDateTime.now(), KeysetPage.fetchLimit(limit));
+        return KeysetPage.of(rows, limit, BidDto::getBidId);
     }
 
     public Bid getBidById(Long bidId) {
@@ -58,12 +120,12 @@ public class BidService {
                 .orElseThrow(() -> new ResourceNotFoundException("Bid not found with id: " + bidId));
     }
 
-    public List<Bid> getBidsByItem(Long itemId) {
-        return bidRepository.findByItemItemId(itemId);
+    public List<BidDto> getBidsByItem(Long itemId) {
+        return bidRepository.findDtosByItemId(itemId, LocalDateTime.now());
     }
 
-    public List<Bid> getBidsByUser(Long userId) {
-        return bidRepository.findByBidderUserId(userId);
+    public List<BidDto> getBidsByUser(Long userId) {
+        return bidRepository.findDtosByBidderId(userId, LocalDateTime.now());
     }
 
     public Optional<BigDecimal> getHighestBidForItem(Long itemId) {
@@ -71,71 +133,374 @@ public class BidService {
     }
 
     public Optional<Bid> getHighestBidWithBidder(Long itemId) {
-        return bidRepository.findHighestBidWithBidderForItem(itemId);
+        return bidRepository.findFirstByItemItemIdOrderByBidAmountDescBidTimeAsc(itemId);
+    }
+
+    /**
+     * What a client missed on the item's bid topic after the given itemBidId: the
+     * buffered frames if they all still are, otherwise a snapshot of the latest bid.
+     */
+    public BidReplayDto getBidsSince(Long itemId, long since) {
+        List<BidMessage> missed = bidReplayBuffer.since(itemId, since);
+        if (missed != null) {
+            return BidReplayDto.missed(itemId, since, missed);
+        }
+        BidMessage snapshot = getBidSnapshot(itemId);
+        if (snapshot == null || snapshot.getItemBidId() <= since) {
+            return BidReplayDto.missed(itemId, since, List.of());
+        }
+        return BidReplayDto.snapshot(itemId, since, snapshot);
+    }
+
+    /**
+     * The item's latest stored bid as a bid frame, or null if it has none.
+     */
+    public BidMessage getBidSnapshot(Long itemId) {
+        return bidRepository.findLatestWithBidder(itemId).map(bid -> {
+            BidMessage snapshot = new BidMessage();
+            snapshot.setItemId(itemId);
+            snapshot.setItemBidId(bid.getItemBidId());
+            snapshot.setAmount(bid.getAmount().doubleValue());
+            snapshot.setBidderId(bid.getBidder().getUserId());
+            snapshot.setBidderName(bid.getBidder().getUsername());
+            return snapshot;
+        }).orElse(null);
     }
 
     public long countBidsByItem(Long itemId) {
         return bidRepository.countBidsByItemId(itemId);
     }
 
-    @Transactional
     public Bid placeBid(Long itemId, Long bidderId, BigDecimal bidAmount) {
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
+        if (acceptanceMode == AcceptanceMode.ENGINE) {
+            return placeBidWithEngine(itemId, bidderId, bidAmount);
+        }
+        if (acceptanceMode == AcceptanceMode.COMPARE_AND_SET) {
+            return placeBidCompareAndSet(itemId, bidderId, bidAmount);
+        }
+        if (acceptanceMode == AcceptanceMode.GROUP_COMMIT) {
+            User bidder = userRepository.findById(bidderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + bidderId));
+            return await(bidGroupCommitter.submit(itemId, bidder, bidAmount));
+        }
+        return transactionTemplate.execute(status -> placeBidTransactional(itemId, bidderId, bidAmount));
+    }
 
-        User bidder = userRepository.findById(bidderId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + bidderId));
+    private void validateBid(Item item, BigDecimal bidAmount) {
+        validateBid(item.getItemStatus(), item.getEndDate(), item.getStartingPrice(),
+                item.getCurrentHighestBid(), bidAmount);
+    }
+
+    // Shared by every acceptance mode so an invalid bid fails the same way whichever path accepts it
+    static void validateBid(Item.ItemStatus itemStatus, LocalDateTime endDate, BigDecimal startingPrice,
+                            BigDecimal highestBid, BigDecimal bidAmount) {
+        // Amounts are stored with two decimals, and the bid journal keeps them as a long number of cents
+        if (bidAmount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Bid amount can have at most two decimal places");
+        }
+        if (bidAmount.compareTo(MAX_BID_AMOUNT) > 0) {
+            throw new IllegalArgumentException("Bid amount must not exceed " + MAX_BID_AMOUNT.toPlainString());
+        }
 
         // Check if auction is active
-        if (item.getItemStatus() != Item.ItemStatus.ACTIVE) {
+        if (itemStatus != Item.ItemStatus.ACTIVE) {
             throw new IllegalStateException("Cannot bid on an item that is not active");
         }
 
         // Check if auction has ended
-        if (item.getEndDate() != null && item.getEndDate().isBefore(LocalDateTime.now())) {
+        if (endDate != null && endDate.isBefore(LocalDateTime.now())) {
             throw new IllegalStateException("Cannot bid on an auction that has ended");
         }
 
         // Check if bid amount is higher than starting price
-        if (bidAmount.compareTo(item.getStartingPrice()) < 0) {
+        if (bidAmount.compareTo(startingPrice) < 0) {
             throw new IllegalArgumentException("Bid amount must be higher than the starting price");
         }
 
         // Check if bid amount is higher than current highest bid
-        Optional<BigDecimal> highestBid = bidRepository.findHighestBidForItem(itemId);
-        if (highestBid.isPresent() && bidAmount.compareTo(highestBid.get()) <= 0) {
+        if (highestBid != null && bidAmount.compareTo(highestBid) <= 0) {
             throw new IllegalArgumentException("Bid amount must be higher than the current highest bid");
         }
+    }
+
+    private Bid placeBidTransactional(Long itemId, Long bidderId, BigDecimal bidAmount) {
+        // Lock the item before validating, so a concurrent bid cannot be checked against
+        // a high bid this transaction is about to replace
+        Item item = itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
+
+        User bidder = userRepository.findById(bidderId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + bidderId));
+
+        validateBid(item, bidAmount);
+
+        // Let standing proxy bids answer this bid before anything is written
+        ProxyBidResolver.Response response = proxyBidResolver.resolve(
+                item.getStartingPrice(), bidAmount, bidderId, loadProxies(itemId).values());
+
+        // Move the item's live aggregates, number the bids and save them in the same transaction
+        long lastItemBidId = (response == null
+                ? itemRepository.applyAcceptedBids(itemId, bidAmount, bidderId, 1)
+                : itemRepository.applyAcceptedBids(itemId, response.amount(), response.bidderId(), 2))
+                .orElseThrow(() -> new IllegalStateException("Cannot bid on an item that is not active"));
+        Bid savedBid = bidRepository.save(newBid(item, bidder, bidAmount,
+                response == null ? lastItemBidId : lastItemBidId - 1));
+        if (response == null) {
+            bidBroadcaster.publish(itemId, savedBid.getItemBidId(), bidderId, bidder.getUsername(), bidAmount, 1,
+                    item.getLeadingBidderId());
+        } else {
+            Bid proxyBid = saveProxyResponse(item, response, lastItemBidId);
+            bidBroadcaster.publish(itemId, proxyBid.getItemBidId(), response.bidderId(), response.bidderName(),
+                    response.amount(), 2, item.getLeadingBidderId(), bidderId);
+        }
+
+        return savedBid;
+    }
+
+    private Bid placeBidCompareAndSet(Long itemId, Long bidderId, BigDecimal bidAmount) {
+        User bidder = userRepository.findById(bidderId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + bidderId));
+
+        for (int attempt = 1; ; attempt++) {
+            Bid bid = transactionTemplate.execute(status -> tryCompareAndSet(itemId, bidder, bidAmount));
+            if (bid != null) {
+                return bid;
+            }
+            if (attempt >= casMaxAttempts) {
+                throw new IllegalStateException("Too many concurrent bids on this item, please retry");
+            }
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * Validates the bid against a plain read of the item and then claims the item
+     * with a single conditional UPDATE. Returns null when another bid changed the
+     * item between the read and the update, so the caller can retry.
+     */
+    private Bid tryCompareAndSet(Long itemId, User bidder, BigDecimal bidAmount) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
+
+        validateBid(item, bidAmount);
+
+        ProxyBidResolver.Response response = proxyBidResolver.resolve(
+                item.getStartingPrice(), bidAmount, bidder.getUserId(), loadProxies(itemId).values());
+        Optional<Long> claimed = response == null
+                ? itemRepository.compareAndSetHighestBid(itemId, item.getVersion(), bidAmount, bidder.getUserId(), 1)
+                : itemRepository.compareAndSetHighestBid(itemId, item.getVersion(), response.amount(), response.bidderId(), 2);
+        if (claimed.isEmpty()) {
+            return null;
+        }
+        long lastItemBidId = claimed.get();
+
+        Bid savedBid = bidRepository.save(newBid(item, bidder, bidAmount,
+                response == null ? lastItemBidId : lastItemBidId - 1));
+        if (response == null) {
+            bidBroadcaster.publish(itemId, savedBid.getItemBidId(), bidder.getUserId(), bidder.getUsername(), bidAmount, 1,
+                    item.getLeadingBidderId());
+        } else {
+            Bid proxyBid = saveProxyResponse(item, response, lastItemBidId);
+            bidBroadcaster.publish(itemId, proxyBid.getItemBidId(), response.bidderId(), response.bidderName(),
+                    response.amount(), 2, item.getLeadingBidderId(), bidder.getUserId());
+        }
+
+        return savedBid;
+    }
+
+    // Exponential backoff with jitter so colliding bidders do not retry in lockstep
+    private void backOff(int attempt) {
+        long ceiling = casBackoffMs << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while placing bid");
+        }
+    }
+
+    private Bid placeBidWithEngine(Long itemId, Long bidderId, BigDecimal bidAmount) {
+        User bidder = userRepository.findById(bidderId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + bidderId));
+        return await(bidEngine.submit(itemId, bidder, bidAmount));
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(engineTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Error placing bid: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the bid to be accepted, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while placing bid");
+        }
+    }
 
-        // Create new bid
+    // The number comes from the item update that accepted the bid, which holds the item's row
+    // until commit, so numbers follow the bid order and a rollback returns them with the bid
+    private Bid newBid(Item item, User bidder, BigDecimal amount, long itemBidId) {
         Bid bid = new Bid();
         bid.setItem(item);
         bid.setBidder(bidder);
-        bid.setAmount(bidAmount);
+        bid.setAmount(amount);
         bid.setBidDate(LocalDateTime.now());
-        
-        // Save the bid
-        Bid savedBid = bidRepository.save(bid);
-        
-        // Broadcast the bid update via WebSocket
-        BidMessage bidMessage = new BidMessage();
-        bidMessage.setItemId(itemId);
-        bidMessage.setAmount(bidAmount.doubleValue());
-        bidMessage.setBidderId(bidderId);
-        bidMessage.setBidderName(bidder.getUsername());
-
-        // Send to both general and item-specific topics
-        messagingTemplate.convertAndSend("/topic/bidUpdates", bidMessage);
-        messagingTemplate.convertAndSend("/topic/bid/" + itemId, bidMessage);
+        bid.setItemBidId(itemBidId);
+        return bid;
+    }
 
-        return savedBid;
+    private Bid saveProxyResponse(Item item, ProxyBidResolver.Response response, long itemBidId) {
+        return bidRepository.save(newBid(item, userRepository.getReferenceById(response.bidderId()), response.amount(),
+                itemBidId));
     }
 
-    public void deleteBid(Long bidId) {
-        if (!bidRepository.existsById(bidId)) {
-            throw new ResourceNotFoundException("Bid not found with id: " + bidId);
+    private Map<Long, ProxyBidResolver.Proxy> loadProxies(Long itemId) {
+        Map<Long, ProxyBidResolver.Proxy> proxies = new LinkedHashMap<>();
+        for (ProxyBid proxyBid : proxyBidRepository.findByItemIdWithBidder(itemId)) {
+            proxies.put(proxyBid.getBidder().getUserId(), ProxyBidResolver.Proxy.of(proxyBid));
+        }
+        return proxies;
+    }
+
+    public Optional<ProxyBid> getProxyBid(Long itemId, Long bidderId) {
+        return proxyBidRepository.findByItemItemIdAndBidderUserId(itemId, bidderId);
+    }
+
+    /**
+     * Registers, or raises, the most the bidder is willing to pay for an item. The
+     * proxies are resolved right away, so the bidder may end up leading with a
+     * visible bid well below the maximum, or be outbid immediately by an earlier
+     * proxy with a higher maximum. The maximum itself is never shown to others.
+     */
+    public ProxyBid registerProxyBid(Long itemId, Long bidderId, BigDecimal maxAmount) {
+        User bidder = userRepository.findById(bidderId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + bidderId));
+        // Truncated to what the database keeps, so ties resolve the same after a reload
+        ProxyBidResolver.Proxy proxy = new ProxyBidResolver.Proxy(
+                bidderId, bidder.getUsername(), maxAmount, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+
+        if (acceptanceMode == AcceptanceMode.ENGINE) {
+            return transactionTemplate.execute(status -> {
+                Item item = itemRepository.findById(itemId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
+                // Written first, so a row the database refuses never reaches the engine
+                ProxyBid proxyBid = saveProxyBid(item, bidder, proxy);
+                proxyBidRepository.flush();
+                evictUnlessCommitted(itemId);
+                await(bidEngine.submitProxy(itemId, proxy));
+                return proxyBid;
+            });
+        }
+        if (acceptanceMode == AcceptanceMode.COMPARE_AND_SET) {
+            for (int attempt = 1; ; attempt++) {
+                ProxyBid proxyBid = transactionTemplate.execute(status -> registerProxyBid(itemId, bidder, proxy, true));
+                if (proxyBid != null) {
+                    return proxyBid;
+                }
+                if (attempt >= casMaxAttempts) {
+                    throw new IllegalStateException("Too many concurrent bids on this item, please retry");
+                }
+                backOff(attempt);
+            }
+        }
+        return transactionTemplate.execute(status -> registerProxyBid(itemId, bidder, proxy, false));
+    }
+
+    /**
+     * Stores the proxy and writes the bid it causes, if any. In compare-and-set mode
+     * the item's version is claimed even when no bid results, so concurrent bids
+     * re-read the proxies; returns null when that claim loses.
+     */
+    private ProxyBid registerProxyBid(Long itemId, User bidder, ProxyBidResolver.Proxy proxy, boolean compareAndSet) {
+        // Without compare-and-set the item is locked before validating, like a plain bid,
+        // so a concurrent bid or group commit batch cannot slip in between
+        Optional<Item> found = compareAndSet
+                ? itemRepository.findById(itemId)
+                : itemRepository.findByIdForUpdate(itemId);
+        Item item = found.orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
+
+        validateBid(item, proxy.maxAmount());
+
+        Map<Long, ProxyBidResolver.Proxy> proxies = loadProxies(itemId);
+        proxies.put(bidder.getUserId(), proxy);
+        ProxyBidResolver.Response response = proxyBidResolver.resolve(
+                item.getStartingPrice(), item.getCurrentHighestBid(), item.getLeadingBidderId(), proxies.values());
+
+        Optional<Long> itemBidId = Optional.empty();
+        if (compareAndSet) {
+            if (response == null) {
+                if (itemRepository.compareAndSetVersion(itemId, item.getVersion()) == 0) {
+                    return null;
+                }
+            } else {
+                itemBidId = itemRepository.compareAndSetHighestBid(
+                        itemId, item.getVersion(), response.amount(), response.bidderId(), 1);
+                if (itemBidId.isEmpty()) {
+                    return null;
+                }
+            }
+        } else if (response != null) {
+            itemBidId = itemRepository.applyAcceptedBids(itemId, response.amount(), response.bidderId(), 1);
+        }
+
+        ProxyBid proxyBid = saveProxyBid(item, bidder, proxy);
+        if (response != null) {
+            Bid proxyBidResponse = saveProxyResponse(item, response, itemBidId
+                    .orElseThrow(() -> new IllegalStateException("Cannot bid on an item that is not active")));
+            bidBroadcaster.publish(itemId, proxyBidResponse.getItemBidId(), response.bidderId(), response.bidderName(),
+                    response.amount(), 1, item.getLeadingBidderId(), bidder.getUserId());
         }
-        bidRepository.deleteById(bidId);
+        return proxyBid;
+    }
+
+    // The engine may hold a proxy whose row is rolled back, e.g. after a timed-out submit
+    // or a failed commit; evicting makes it reload the proxies from the database
+    private void evictUnlessCommitted(Long itemId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    bidEngine.evict(itemId);
+                }
+            }
+        });
+    }
+
+    private ProxyBid saveProxyBid(Item item, User bidder, ProxyBidResolver.Proxy proxy) {
+        ProxyBid proxyBid = proxyBidRepository.findByItemItemIdAndBidderUserId(item.getItemId(), bidder.getUserId())
+                .orElseGet(ProxyBid::new);
+        proxyBid.setItem(item);
+        proxyBid.setBidder(bidder);
+        proxyBid.setMaxAmount(proxy.maxAmount());
+        proxyBid.setPlacedAt(proxy.placedAt());
+        return proxyBidRepository.save(proxyBid);
+    }
+
+    public void cancelProxyBid(Long itemId, Long bidderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ProxyBid proxyBid = proxyBidRepository.findByItemItemIdAndBidderUserId(itemId, bidderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("No proxy bid for item " + itemId + " and user " + bidderId));
+            proxyBidRepository.delete(proxyBid);
+        });
+        // Bids already placed by the proxy stay; the cached maximum must go
+        bidEngine.evict(itemId);
+    }
+
+    public void deleteBid(Long bidId) {
+        Long itemId = transactionTemplate.execute(status -> {
+            Bid bid = getBidById(bidId);
+            Long bidItemId = bid.getItem().getItemId();
+            bidRepository.delete(bid);
+            bidRepository.flush();
+            itemRepository.recalculateBidAggregates(bidItemId);
+            return bidItemId;
+        });
+        // The deleted bid may have been the cached high bid
+        bidEngine.evict(itemId);
     }
 
     public List<UserBidDTO> getUserBids() {
@@ -155,17 +520,17 @@ public class BidService {
             dto.setAmount(bid.getAmount());
             dto.setBidDate(bid.getBidDate());
             
-            // Get current highest bid for the item
-            BigDecimal currentHighestBid = bidRepository.findHighestBidAmountByItemId(bid.getItem().getItemId())
-                    .orElse(bid.getItem().getStartingPrice());
+            // Current highest bid is maintained on the item, no per-row query needed
+            BigDecimal currentHighestBid = bid.getItem().getCurrentHighestBid() != null
+                    ? bid.getItem().getCurrentHighestBid()
+                    : bid.getItem().getStartingPrice();
             dto.setCurrentHighestBid(currentHighestBid);
             
             // Check if this is the highest bid
             dto.setIsHighestBid(bid.getAmount().compareTo(currentHighestBid) >= 0);
             
-            // Check if user has been outbid
-            dto.setIsOutbid(!dto.getIsHighestBid() && 
-                bidRepository.existsByItemIdAndAmountGreaterThan(bid.getItem().getItemId(), bid.getAmount()));
+            // Any bid below the current highest one has been outbid
+            dto.setIsOutbid(!dto.getIsHighestBid());
             
             return dto;
         }).collect(Collectors.toList());
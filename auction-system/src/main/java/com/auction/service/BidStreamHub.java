@@ -0,0 +1,316 @@
+package com.auction.service;
+
+import com.auction.dto.BidReplayDto;
+import com.auction.model.BidMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events bid streams for read-only viewers. Each item has one list of
+ * subscribers, and every bid frame is serialized once and queued for all of them,
+ * so a stream costs one open connection and no thread while idle.
+ *
+ * Frames are queued on a fixed set of single-threaded publishers keyed by itemId,
+ * never on the thread that accepted the bid, and in the order they were published.
+ * Each stream has its own bounded queue, written out by a pool of writers, so a
+ * client that stops reading holds up only itself: once its queue is full the
+ * oldest frames are dropped (every frame carries the item's current price), and a
+ * write that takes longer than bid.stream.write-timeout-ms ends the stream.
+ *
+ * Events carry the itemBidId as their id, so a browser reconnecting with
+ * Last-Event-ID is sent only the frames it missed, from {@link BidReplayBuffer}.
+ */
+@Component
+public class BidStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidStreamHub.class);
+
+    private final ObjectMapper objectMapper;
+    private final BidReplayBuffer bidReplayBuffer;
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${bid.stream.threads:2}")
+    private int threadCount;
+
+    @Value("${bid.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${bid.stream.heartbeat-ms:30000}")
+    private long heartbeatMs;
+
+    @Value("${bid.stream.writer-threads:8}")
+    private int writerThreads;
+
+    @Value("${bid.stream.queue-size:32}")
+    private int queueSize;
+
+    @Value("${bid.stream.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    private ExecutorService[] publishers;
+    private ExecutorService writers;
+    private ScheduledExecutorService heartbeats;
+
+    public BidStreamHub(ObjectMapper objectMapper, BidReplayBuffer bidReplayBuffer) {
+        this.objectMapper = objectMapper;
+        this.bidReplayBuffer = bidReplayBuffer;
+    }
+
+    @PostConstruct
+    public void start() {
+        publishers = new ExecutorService[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            publishers[i] = Executors.newSingleThreadExecutor(threads("bid-stream-" + i + "-"));
+        }
+        writers = Executors.newFixedThreadPool(writerThreads, threads("bid-stream-writer-"));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(threads("bid-stream-heartbeat-"));
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        for (ExecutorService publisher : publishers) {
+            publisher.shutdownNow();
+        }
+        writers.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * Opens a stream of the item's bids, starting with the replay: a snapshot of the
+     * latest bid and/or the frames after replay.since. The stream is registered on
+     * the item's publisher and then topped up from the replay buffer, so frames
+     * published while the replay was taken are not missed, and none is sent twice.
+     */
+    public SseEmitter subscribe(Long itemId, BidReplayDto replay) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs));
+        Runnable remove = () -> remove(itemId, subscriber);
+        subscriber.emitter.onCompletion(remove);
+        subscriber.emitter.onTimeout(remove);
+        subscriber.emitter.onError(error -> remove.run());
+
+        execute(itemId, () -> {
+            subscriber.lastItemBidId = replay.getSince();
+            if (replay.getSnapshot() != null) {
+                send(itemId, subscriber, "snapshot", replay.getSnapshot());
+            }
+            replay.getBids().forEach(bidMessage -> send(itemId, subscriber, "bid", bidMessage));
+            subscribers.computeIfAbsent(itemId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+
+            List<BidMessage> recent = bidReplayBuffer.since(itemId, subscriber.lastItemBidId);
+            if (recent != null) {
+                recent.forEach(bidMessage -> send(itemId, subscriber, "bid", bidMessage));
+            }
+        });
+        return subscriber.emitter;
+    }
+
+    /**
+     * Sends the bid to the item's streams; json is the frame as already serialized
+     * for the STOMP topics.
+     */
+    public void publish(BidMessage bidMessage, byte[] json) {
+        Long itemId = bidMessage.getItemId();
+        if (!subscribers.containsKey(itemId)) {
+            return;
+        }
+        execute(itemId, () -> {
+            List<Subscriber> list = subscribers.get(itemId);
+            if (list == null) {
+                return;
+            }
+            String data = new String(json, StandardCharsets.UTF_8);
+            for (Subscriber subscriber : list) {
+                send(itemId, subscriber, "bid", bidMessage.getItemBidId(), data);
+            }
+        });
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Ends streams stuck in a write, and sends a comment to idle ones, which keeps
+     * their connections open through proxies and reveals dead ones.
+     */
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        subscribers.forEach((itemId, list) -> {
+            for (Subscriber subscriber : list) {
+                long writingSince = subscriber.writingSince;
+                if (writingSince != 0 && now - writingSince > writeTimeoutMs) {
+                    drop(itemId, subscriber, new IOException("Write timed out after " + (now - writingSince) + " ms"));
+                } else if (writingSince == 0) {
+                    enqueue(itemId, subscriber, SseEmitter.event().comment(""), true);
+                }
+            }
+        });
+    }
+
+    private void send(Long itemId, Subscriber subscriber, String name, BidMessage bidMessage) {
+        send(itemId, subscriber, name, bidMessage.getItemBidId(), toJson(bidMessage));
+    }
+
+    private void send(Long itemId, Subscriber subscriber, String name, Long itemBidId, String json) {
+        // Frames sent in the replay or the top-up may be published once more right after it
+        if (itemBidId != null && itemBidId <= subscriber.lastItemBidId) {
+            return;
+        }
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON);
+        if (itemBidId != null) {
+            event.id(itemBidId.toString());
+            subscriber.lastItemBidId = itemBidId;
+        }
+        enqueue(itemId, subscriber, event, false);
+    }
+
+    /**
+     * Queues the event without waiting for the client, and starts a writer for the
+     * stream unless one is already on it. Idle-only events (heartbeats) are skipped
+     * when anything is queued.
+     */
+    private void enqueue(Long itemId, Subscriber subscriber, SseEmitter.SseEventBuilder event, boolean idleOnly) {
+        boolean startWriter;
+        synchronized (subscriber) {
+            if (subscriber.closed || (idleOnly && !subscriber.pending.isEmpty())) {
+                return;
+            }
+            if (subscriber.pending.size() >= queueSize) {
+                subscriber.pending.pollFirst();
+                subscriber.dropped++;
+            }
+            subscriber.pending.addLast(event);
+            startWriter = !subscriber.writing;
+            subscriber.writing = true;
+        }
+        if (startWriter) {
+            try {
+                writers.execute(() -> write(itemId, subscriber));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Bid stream writers are shut down, dropping update for item {}", itemId);
+            }
+        }
+    }
+
+    // Writes the stream's queue out; at most one writer per stream at a time
+    private void write(Long itemId, Subscriber subscriber) {
+        // Bounded, so a stream that is never empty still lets the others take a turn
+        for (int written = 0; written < queueSize; written++) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (subscriber) {
+                event = subscriber.pending.pollFirst();
+                if (event == null) {
+                    subscriber.writing = false;
+                    if (subscriber.dropped > 0) {
+                        logger.debug("Dropped {} queued frames of a slow bid stream for item {}",
+                                subscriber.dropped, itemId);
+                        subscriber.dropped = 0;
+                    }
+                    return;
+                }
+            }
+            subscriber.writingSince = System.currentTimeMillis();
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                drop(itemId, subscriber, e);
+                return;
+            } finally {
+                subscriber.writingSince = 0;
+            }
+        }
+        try {
+            writers.execute(() -> write(itemId, subscriber));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Bid stream writers are shut down, dropping update for item {}", itemId);
+        }
+    }
+
+    private void drop(Long itemId, Subscriber subscriber, Exception e) {
+        remove(itemId, subscriber);
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return;
+            }
+            subscriber.closed = true;
+            subscriber.pending.clear();
+        }
+        logger.debug("Dropping bid stream for item {}: {}", itemId, e.getMessage());
+        subscriber.emitter.completeWithError(e);
+    }
+
+    private void remove(Long itemId, Subscriber subscriber) {
+        subscribers.computeIfPresent(itemId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private void execute(Long itemId, Runnable task) {
+        try {
+            publishers[Math.floorMod(itemId.hashCode(), publishers.length)].execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Bid stream publisher is shut down, dropping update for item {}", itemId);
+        }
+    }
+
+    private String toJson(BidMessage bidMessage) {
+        try {
+            return objectMapper.writeValueAsString(bidMessage);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize bid message", e);
+        }
+    }
+
+    private static ThreadFactory threads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Only touched on the item's publisher thread
+        private long lastItemBidId;
+        // Guarded by the subscriber
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean writing;
+        private boolean closed;
+        private int dropped;
+        // Start of the write in progress, or 0
+        private volatile long writingSince;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.auction.service;
+
+import com.auction.model.AcceptedBid;
+import com.auction.model.Bid;
+import com.auction.repository.BidRepository;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists bids accepted by the {@link BidEngine} off the request path. A single
+ * background thread drains the queue and writes each batch, together with the
+ * items' live aggregates, in one transaction, so a burst of bids costs one commit
+ * instead of one per bid.
+ *
+ * A batch that fails for a reason that can pass (a lost connection, a timeout, a
+ * lock conflict) is retried until the database takes it. A batch the database
+ * rejects outright, e.g. a bid on an item deleted meanwhile, is written again one
+ * bid at a time, and the bids that are still rejected are logged and dropped, so
+ * one bad row cannot hold up every bid behind it. The queue is bounded by bid.write-behind.queue-capacity
+ * bids not yet written, and once it is full new bids are refused, so an outage
+ * pushes back on bidders instead of growing the heap. The latest unwritten bid of
+ * each item stays visible through {@link #unflushed(Long)} until it is written, so
+ * the engine can reload an item without losing bids it has already acknowledged.
+ *
+ * With bid.journal.enabled every bid is first appended to the {@link BidJournal},
+ * so an acknowledged bid also survives a crash: a batch is released from the
+ * journal only once it is written, and the unflushed tail is replayed on startup.
+ */
+@Component
+public class BidWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidWriteBehind.class);
+
+    private enum Outcome { WRITTEN, FAILED, REJECTED }
+
+    private final BidRepository bidRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BidJournal bidJournal;
+    private final Map<Long, AcceptedBid> unflushed = new ConcurrentHashMap<>();
+    private BlockingQueue<AcceptedBid> queue;
+    private Semaphore capacity;
+
+    @Value("${bid.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${bid.write-behind.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${bid.write-behind.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${bid.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    // Owned by the flusher thread until it has stopped
+    private final List<AcceptedBid> batch = new ArrayList<>();
+    // Leading bids of the list being written one at a time that are written or dropped already
+    private int settled;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public BidWriteBehind(
+            BidRepository bidRepository,
+            ItemRepository itemRepository,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            BidJournal bidJournal) {
+        this.bidRepository = bidRepository;
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bidJournal = bidJournal;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        capacity = new Semaphore(queueCapacity);
+        if (journalEnabled) {
+            replay(bidJournal.open());
+        }
+        running = true;
+        flusher = new Thread(this::run, "bid-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Write the batch the flusher was retrying, if any, and whatever was accepted after it stopped
+        int done = settled;
+        List<AcceptedBid> remaining = new ArrayList<>(batch.subList(done, batch.size()));
+        queue.drainTo(remaining);
+        if (remaining.isEmpty() && done == 0) {
+            return;
+        }
+        if (write(remaining, false)) {
+            if (journalEnabled) {
+                bidJournal.release(done + remaining.size());
+            }
+        } else if (!journalEnabled) {
+            for (AcceptedBid lost : remaining) {
+                logger.error("Accepted bid not saved at shutdown: {}", lost);
+            }
+        }
+    }
+
+    /**
+     * Queues bids accepted together, e.g. a bid and the proxy bid answering it, so
+     * they are journaled and written in the given order. Throws, queuing none of
+     * them, when the queue is full; the caller must then refuse the bid.
+     */
+    public void enqueue(AcceptedBid... acceptedBids) {
+        if (!capacity.tryAcquire(acceptedBids.length)) {
+            throw new IllegalStateException("Too many bids waiting to be saved, please retry");
+        }
+        if (!journalEnabled) {
+            add(acceptedBids);
+            return;
+        }
+        // Journal and queue order must match, since flushes release the journal in order
+        synchronized (queue) {
+            try {
+                bidJournal.append(acceptedBids);
+            } catch (RuntimeException e) {
+                capacity.release(acceptedBids.length);
+                throw e;
+            }
+            add(acceptedBids);
+        }
+    }
+
+    // Published before queuing, so a bid is never in the queue without being visible here
+    private void add(AcceptedBid[] acceptedBids) {
+        for (AcceptedBid accepted : acceptedBids) {
+            unflushed.put(accepted.getItemId(), accepted);
+        }
+        queue.addAll(Arrays.asList(acceptedBids));
+    }
+
+    /**
+     * The item's latest accepted bid that is not written yet, or null if all of its
+     * bids are in the database. Bids of one item are queued in acceptance order, so
+     * this is the highest of them.
+     */
+    public AcceptedBid unflushed(Long itemId) {
+        return unflushed.get(itemId);
+    }
+
+    /**
+     * Waits until every bid of the item queued so far is written. Returns false if
+     * that did not happen within the timeout.
+     */
+    public boolean awaitFlushed(Long itemId, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (unflushed) {
+            while (unflushed.containsKey(itemId)) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                unflushed.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                AcceptedBid first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch, true);
+                if (journalEnabled) {
+                    bidJournal.release(batch.size());
+                }
+                flushed(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Writes the batch, falling back to one bid at a time if the database rejects
+     * it. With untilWritten, failures that can pass are retried until they do;
+     * otherwise returns false if some bid could not be written for such a reason.
+     * Bids the database rejects on their own are logged and dropped.
+     */
+    private boolean write(List<AcceptedBid> batch, boolean untilWritten) throws InterruptedException {
+        settled = 0;
+        Outcome outcome = flush(batch, untilWritten);
+        if (outcome != Outcome.REJECTED) {
+            return outcome == Outcome.WRITTEN;
+        }
+        boolean written = true;
+        for (settled = 0; settled < batch.size(); settled++) {
+            AcceptedBid accepted = batch.get(settled);
+            outcome = flush(List.of(accepted), untilWritten);
+            if (outcome == Outcome.REJECTED) {
+                logger.error("Dropping accepted bid the database rejects: {}", accepted);
+            } else if (outcome == Outcome.FAILED) {
+                written = false;
+            }
+        }
+        settled = 0;
+        return written;
+    }
+
+    private Outcome flush(List<AcceptedBid> batch, boolean untilWritten) throws InterruptedException {
+        Outcome outcome;
+        while ((outcome = flush(batch)) == Outcome.FAILED && untilWritten) {
+            logger.error("Could not save {} accepted bids after {} attempts, {} more waiting; retrying",
+                    batch.size(), maxRetries, queue.size());
+            TimeUnit.SECONDS.sleep(1);
+        }
+        return outcome;
+    }
+
+    private Outcome flush(List<AcceptedBid> batch) {
+        for (int attempt = 1; attempt <= maxRetries; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    bidRepository.saveAll(toEntities(batch));
+                    applyAggregates(batch);
+                });
+                return Outcome.WRITTEN;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    logger.warn("Database rejected {} accepted bids: {}", batch.size(), e.getMessage());
+                    return Outcome.REJECTED;
+                }
+                logger.warn("Failed to persist {} accepted bids (attempt {}/{}): {}",
+                        batch.size(), attempt, maxRetries, e.getMessage());
+            }
+        }
+        return Outcome.FAILED;
+    }
+
+    // Failures that may not happen again: lost or unavailable connections, timeouts, lock conflicts
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Frees the batch's room in the queue and clears the items whose latest bid it wrote
+    private void flushed(List<AcceptedBid> batch) {
+        capacity.release(batch.size());
+        synchronized (unflushed) {
+            for (AcceptedBid accepted : batch) {
+                unflushed.remove(accepted.getItemId(), accepted);
+            }
+            unflushed.notifyAll();
+        }
+    }
+
+    /**
+     * Writes the bids left in the journal by the previous run before any new bid is
+     * accepted. A crash between a batch commit and the watermark update leaves bids
+     * that are already in the table, so those are skipped.
+     */
+    private void replay(List<BidJournal.Recovered> recovered) {
+        if (recovered.isEmpty()) {
+            return;
+        }
+        List<AcceptedBid> missing = new ArrayList<>();
+        for (BidJournal.Recovered entry : recovered) {
+            AcceptedBid bid = entry.bid();
+            if (!bidRepository.existsByItemItemIdAndBidderUserIdAndBidAmountAndBidTime(
+                    bid.getItemId(), bid.getBidderId(), bid.getAmount(), bid.getBidTime())) {
+                missing.add(bid);
+            }
+        }
+        try {
+            if (!missing.isEmpty() && !write(missing, false)) {
+                throw new IllegalStateException("Could not replay " + missing.size() + " journaled bids");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying journaled bids", e);
+        }
+        bidJournal.markFlushed(recovered.get(recovered.size() - 1).sequence());
+        logger.info("Replayed {} journaled bids ({} already persisted)",
+                missing.size(), recovered.size() - missing.size());
+    }
+
+    /**
+     * Moves each item's live aggregates once per batch. Bids for an item are queued
+     * in acceptance order, so the last one in the batch is the new highest bid and
+     * has the item's latest number.
+     */
+    private void applyAggregates(List<AcceptedBid> batch) {
+        Map<Long, AcceptedBid> latest = new LinkedHashMap<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        for (AcceptedBid accepted : batch) {
+            latest.put(accepted.getItemId(), accepted);
+            counts.merge(accepted.getItemId(), 1, Integer::sum);
+        }
+        for (AcceptedBid highest : latest.values()) {
+            int updated = itemRepository.applyNumberedBids(highest.getItemId(), highest.getAmount(),
+                    highest.getBidderId(), counts.get(highest.getItemId()), highest.getItemBidId());
+            if (updated == 0) {
+                logger.warn("Item {} is no longer active; saved {} accepted bids without changing its result",
+                        highest.getItemId(), counts.get(highest.getItemId()));
+            }
+        }
+    }
+
+    private List<Bid> toEntities(List<AcceptedBid> batch) {
+        List<Bid> bids = new ArrayList<>(batch.size());
+        for (AcceptedBid accepted : batch) {
+            Bid bid = new Bid();
+            bid.setItem(itemRepository.getReferenceById(accepted.getItemId()));
+            bid.setBidder(userRepository.getReferenceById(accepted.getBidderId()));
+            bid.setAmount(accepted.getAmount());
+            bid.setBidDate(accepted.getBidTime());
+            bid.setItemBidId(accepted.getItemBidId());
+            bids.add(bid);
+        }
+        return bids;
+    }
+}
@@ -0,0 +1,260 @@
+package com.auction.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Writes whole tables to a response as JSON lines or CSV while they are read.
+ * Rows come from a forward-only cursor, export.fetch-size at a time, which the
+ * PostgreSQL driver only uses inside a transaction, and go straight to the output
+ * without becoming entities or DTOs, so memory does not grow with the table. The
+ * first row is flushed as soon as it is read.
+ *
+ * Columns are named like the fields of the matching DTOs.
+ */
+@Service
+public class ExportService {
+
+    private static final String BIDS =
+            "SELECT b.bid_id AS \"bidId\", b.item_id AS \"itemId\", i.title AS \"itemTitle\", " +
+            "b.bidder_id AS \"bidderId\", u.username AS \"bidderUsername\", b.bid_amount AS \"bidAmount\", " +
+            "b.bid_time AS \"bidTime\", b.item_bid_id AS \"itemBidId\" " +
+            "FROM bids b JOIN items i ON i.item_id = b.item_id JOIN users u ON u.user_id = b.bidder_id " +
+            "ORDER BY b.bid_id";
+    private static final String AUCTION_RESULTS =
+            "SELECT r.result_id AS \"resultId\", r.item_id AS \"itemId\", i.title AS \"itemTitle\", " +
+            "r.winner_id AS \"winnerId\", u.username AS \"winnerName\", i.end_date AS \"endDate\", " +
+            "r.final_price AS \"finalPrice\", r.result_status AS \"resultStatus\" " +
+            "FROM auction_results r JOIN items i ON i.item_id = r.item_id LEFT JOIN users u ON u.user_id = r.winner_id " +
+            "ORDER BY r.result_id";
+    private static final String ITEMS =
+            "SELECT i.item_id AS \"itemId\", i.title AS \"title\", i.seller_id AS \"sellerId\", " +
+            "u.username AS \"sellerUsername\", i.category_id AS \"categoryId\", c.category_name AS \"categoryName\", " +
+            "i.starting_price AS \"startingPrice\", i.current_highest_bid AS \"currentHighestBid\", " +
+            "i.bid_count AS \"bidCount\", i.item_status AS \"itemStatus\", i.start_date AS \"startDate\", " +
+            "i.end_date AS \"endDate\" " +
+            "FROM items i LEFT JOIN users u ON u.user_id = i.seller_id " +
+            "LEFT JOIN categories c ON c.category_id = i.category_id " +
+            "ORDER BY i.item_id";
+
+    public enum Format {
+        JSONL("application/x-ndjson", "jsonl"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format of(String format) {
+            for (Format value : values()) {
+                if (value.extension.equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (use jsonl or csv)");
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            @Value("${export.fetch-size:1000}") int fetchSize) {
+        // A template of its own, so the fetch size does not apply to other queries
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportBids(Format format, OutputStream out) throws IOException {
+        export(BIDS, format, out);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAuctionResults(Format format, OutputStream out) throws IOException {
+        export(AUCTION_RESULTS, format, out);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportItems(Format format, OutputStream out) throws IOException {
+        export(ITEMS, format, out);
+    }
+
+    private void export(String sql, Format format, OutputStream out) throws IOException {
+        RowWriter writer = format == Format.JSONL ? new JsonLinesWriter(out) : new CsvWriter(out);
+        try {
+            jdbcTemplate.query(sql, (ResultSetExtractor<Void>) rs -> {
+                try {
+                    writer.start(rs.getMetaData());
+                    writer.flush();
+                    boolean first = true;
+                    while (rs.next()) {
+                        writer.row(rs);
+                        if (first) {
+                            writer.flush();
+                            first = false;
+                        }
+                    }
+                    writer.finish();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away
+            throw e.getCause();
+        }
+    }
+
+    // Timestamps are written like Jackson writes LocalDateTime, e.g. 2025-03-01T12:00:00.123
+    private static Object valueOf(ResultSet rs, int column, int type) throws SQLException {
+        if (type == Types.TIMESTAMP) {
+            Timestamp timestamp = rs.getTimestamp(column);
+            return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+        }
+        return rs.getObject(column);
+    }
+
+    private abstract static class RowWriter {
+        protected String[] names;
+        protected int[] types;
+
+        void start(ResultSetMetaData metaData) throws SQLException, IOException {
+            names = new String[metaData.getColumnCount()];
+            types = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = metaData.getColumnLabel(i + 1);
+                types[i] = metaData.getColumnType(i + 1);
+            }
+        }
+
+        abstract void row(ResultSet rs) throws SQLException, IOException;
+
+        abstract void flush() throws IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    private final class JsonLinesWriter extends RowWriter {
+        private final JsonGenerator generator;
+
+        private JsonLinesWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void row(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                Object value = valueOf(rs, i + 1, types[i]);
+                generator.writeFieldName(names[i]);
+                if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter extends RowWriter {
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        void start(ResultSetMetaData metaData) throws SQLException, IOException {
+            super.start(metaData);
+            writer.write(String.join(",", names));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void row(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = valueOf(rs, i + 1, types[i]);
+                if (value instanceof Number) {
+                    writer.write(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180 quoting; text a spreadsheet would run as a formula is prefixed with '
+        private static String escape(String value) {
+            if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.auction.service;
 
-import com.auction.model.Favorite;
+import com.auction.dto.FavoriteDto;
 import com.auction.repository.FavoriteRepository;
 import org.springframework.stereotype.Service;
 import java.util.List;
@@ -11,7 +11,7 @@ public class FavoriteService {
     public FavoriteService(FavoriteRepository favoriteRepository) {
         this.favoriteRepository = favoriteRepository;
     }
-    public List<Favorite> getFavoritesByUser(Long userId) {
-        return favoriteRepository.findByUserUserId(userId);
+    public List<FavoriteDto> getFavoritesByUser(Long userId) {
+        return favoriteRepository.findDtosByUserId(userId);
     }
 }
@@ -1,12 +1,16 @@
 package com.auction.service;
 
+import com.auction.dto.ItemDto;
+import com.auction.dto.KeysetPage;
 import com.auction.exception.ResourceNotFoundException;
 import com.auction.model.Category;
 import com.auction.model.Item;
 import com.auction.model.User;
 import com.auction.repository.CategoryRepository;
 import com.auction.repository.ItemRepository;
+import com.auction.repository.ProxyBidRepository;
 import com.auction.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,20 +25,33 @@ import java.util.LinkedHashMap;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ProxyBidRepository proxyBidRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final BidEngine bidEngine;
+    private final AuctionCloser auctionCloser;
+
+    @Value("${auction.settlement.drain-timeout-ms:5000}")
+    private long drainTimeoutMs;
 
     public ItemService(
             ItemRepository itemRepository,
+            ProxyBidRepository proxyBidRepository,
             UserRepository userRepository,
-            CategoryRepository categoryRepository) {
+            CategoryRepository categoryRepository,
+            BidEngine bidEngine,
+            AuctionCloser auctionCloser) {
         this.itemRepository = itemRepository;
+        this.proxyBidRepository = proxyBidRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
+        this.bidEngine = bidEngine;
+        this.auctionCloser = auctionCloser;
     }
 
-    public List<Item> getAllItems() {
-        return itemRepository.findAll();
+    public KeysetPage<ItemDto> getItems(Long after, Integer limit) {
+        List<ItemDto> rows = itemRepository.findDtoPageAfter(KeysetPage.start(after), KeysetPage.fetchLimit(limit));
+        return KeysetPage.of(rows, limit, ItemDto::getItemId);
     }
 
     public Item getItemById(Long itemId) {
@@ -42,6 +59,18 @@ public class ItemService {
                 .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
     }
 
+    // Existence check by primary key, without loading the item
+    public void requireItem(Long itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ResourceNotFoundException("Item not found with id: " + itemId);
+        }
+    }
+
+    public ItemDto getItemDtoById(Long itemId) {
+        return itemRepository.findDtoById(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + itemId));
+    }
+
     public List<Item> getItemsByCategory(Long categoryId) {
         return itemRepository.findByCategoryCategoryId(categoryId);
     }
@@ -71,7 +100,9 @@ public class ItemService {
             item.setItemStatus(Item.ItemStatus.DRAFT);
         }
         // Do not set seller here
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        auctionCloser.track(savedItem);
+        return savedItem;
     }
 
     @Transactional
@@ -90,6 +121,8 @@ public class ItemService {
         if (itemDetails.getStartDate() != null) item.setStartDate(itemDetails.getStartDate());
         if (itemDetails.getEndDate() != null) item.setEndDate(itemDetails.getEndDate());
         if (itemDetails.getItemStatus() != null) item.setItemStatus(itemDetails.getItemStatus());
+        bidEngine.evict(itemId);
+        auctionCloser.track(item);
         return itemRepository.save(item);
     }
 
@@ -108,6 +141,8 @@ public class ItemService {
         item.setStartDate(startDate);
         item.setEndDate(endDate);
         item.setItemStatus(Item.ItemStatus.ACTIVE);
+        bidEngine.evict(itemId);
+        auctionCloser.track(item);
         
         return itemRepository.save(item);
     }
@@ -116,6 +151,8 @@ public class ItemService {
     public Item updateItemStatus(Long itemId, Item.ItemStatus status) {
         Item item = getItemById(itemId);
         item.setItemStatus(status);
+        bidEngine.evict(itemId);
+        auctionCloser.track(item);
         return itemRepository.save(item);
     }
 
@@ -124,16 +161,37 @@ public class ItemService {
         if (!itemRepository.existsById(itemId)) {
             throw new ResourceNotFoundException("Item not found with id: " + itemId);
         }
+        // Write the bids the engine accepted before the row goes, so none is left queued against
+        // a missing item; the book stays closed to new bids until it is evicted after commit
+        bidEngine.evict(itemId);
+        if (!drain(itemId)) {
+            throw new IllegalStateException("Bids on this item are still being saved, please retry");
+        }
+        proxyBidRepository.deleteByItemIds(List.of(itemId));
         itemRepository.deleteById(itemId);
+        auctionCloser.untrack(itemId);
+    }
+
+    private boolean drain(Long itemId) {
+        try {
+            return !bidEngine.drain(List.of(itemId), drainTimeoutMs).isEmpty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
     public List<Item> findExpiredAuctions() {
         return itemRepository.findExpiredAuctions(LocalDateTime.now());
     }
 
+    public List<Long> findExpiredAuctionIds() {
+        return itemRepository.findExpiredAuctionIds(LocalDateTime.now());
+    }
+
     public List<Item> getPopularItems() {
         // Get items with the most bids
-        return itemRepository.findTop5ByOrderByBidsCountDesc();
+        return itemRepository.findTop5ByOrderByBidCountDesc();
     }
 
     public Map<String, Long> getCategoryStats() {
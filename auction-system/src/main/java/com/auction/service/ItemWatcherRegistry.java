@@ -0,0 +1,150 @@
+package com.auction.service;
+
+import com.auction.dto.WatcherCountDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the STOMP sessions subscribed to each item's /topic/bid/{itemId}. Counts
+ * are LongAdders moved on subscribe, unsubscribe and disconnect, so busy items do
+ * not contend on one counter, and reading them never walks the session registry.
+ *
+ * Every bid.watchers.publish-ms, the items whose count changed get one frame with
+ * their current count on /topic/bid/{itemId}/watchers. Counts are per node.
+ */
+@Component
+public class ItemWatcherRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemWatcherRegistry.class);
+
+    private static final String ITEM_TOPIC_PREFIX = "/topic/bid/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<Long, LongAdder> watchers = new ConcurrentHashMap<>();
+    // Item subscriptions of each session, by subscription id, to undo on unsubscribe or disconnect
+    private final Map<String, Map<String, Long>> sessions = new ConcurrentHashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    @Value("${bid.watchers.publish-ms:5000}")
+    private long publishMs;
+
+    private ScheduledExecutorService publisher;
+
+    public ItemWatcherRegistry(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        Gauge.builder("websocket.watchers", watchers,
+                        map -> map.values().stream().mapToLong(LongAdder::sum).sum())
+                .description("STOMP subscriptions to item bid topics")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-watchers");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleAtFixedRate(this::publishChanged, publishMs, publishMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdownNow();
+    }
+
+    public void subscribed(String sessionId, String subscriptionId, String destination) {
+        Long itemId = itemIdOf(destination);
+        if (sessionId == null || subscriptionId == null || itemId == null) {
+            return;
+        }
+        Long previous = sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, itemId);
+        if (previous != null) {
+            move(previous, -1);
+        }
+        move(itemId, 1);
+    }
+
+    public void unsubscribed(String sessionId, String subscriptionId) {
+        Map<String, Long> subscriptions = sessionId != null ? sessions.get(sessionId) : null;
+        if (subscriptions == null || subscriptionId == null) {
+            return;
+        }
+        Long itemId = subscriptions.remove(subscriptionId);
+        if (itemId != null) {
+            move(itemId, -1);
+        }
+    }
+
+    public void disconnected(String sessionId) {
+        Map<String, Long> subscriptions = sessionId != null ? sessions.remove(sessionId) : null;
+        if (subscriptions != null) {
+            subscriptions.values().forEach(itemId -> move(itemId, -1));
+        }
+    }
+
+    public long getWatching(Long itemId) {
+        LongAdder count = watchers.get(itemId);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Returns the most watched items on this node, most watched first.
+     */
+    public List<WatcherCountDto> getMostWatched(int limit) {
+        return watchers.entrySet().stream()
+                .map(entry -> WatcherCountDto.of(entry.getKey(), entry.getValue().sum()))
+                .filter(dto -> dto.getWatching() > 0)
+                .sorted(Comparator.comparingLong(WatcherCountDto::getWatching).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // Adders are never removed, so an update can not land on one that was dropped
+    private void move(Long itemId, int delta) {
+        watchers.computeIfAbsent(itemId, id -> new LongAdder()).add(delta);
+        changed.add(itemId);
+    }
+
+    private void publishChanged() {
+        for (Long itemId : changed) {
+            changed.remove(itemId);
+            long watching = getWatching(itemId);
+            try {
+                messagingTemplate.convertAndSend(ITEM_TOPIC_PREFIX + itemId + "/watchers",
+                        WatcherCountDto.of(itemId, watching));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to publish watcher count for item {}: {}", itemId, e.getMessage());
+            }
+        }
+    }
+
+    // Only the item topic itself counts, not /topic/bid/{itemId}/watchers
+    private static Long itemIdOf(String destination) {
+        if (destination == null || !destination.startsWith(ITEM_TOPIC_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(destination.substring(ITEM_TOPIC_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.auction.service;
 
+import com.auction.dto.NotificationDto;
 import com.auction.model.Notification;
 import com.auction.repository.NotificationRepository;
 import org.springframework.stereotype.Service;
@@ -11,8 +12,8 @@ public class NotificationService {
     public NotificationService(NotificationRepository notificationRepository) {
         this.notificationRepository = notificationRepository;
     }
-    public List<Notification> getNotificationsByUser(Long userId) {
-        return notificationRepository.findByUserUserId(userId);
+    public List<NotificationDto> getNotificationsByUser(Long userId) {
+        return notificationRepository.findDtosByUserId(userId);
     }
 
     public void createNotification(com.auction.dto.NotificationDto dto) {
@@ -25,12 +26,12 @@ public class NotificationService {
         notificationRepository.save(notification);
     }
 
-    public List<Notification> getNotificationsByTarget(String target) {
-        return notificationRepository.findByTarget(target);
+    public List<NotificationDto> getNotificationsByTarget(String target) {
+        return notificationRepository.findDtosByTarget(target);
     }
 
-    public List<Notification> searchNotifications(String query) {
-        return notificationRepository.findByTitleContainingIgnoreCaseOrMessageContainingIgnoreCase(query, query);
+    public List<NotificationDto> searchNotifications(String query) {
+        return notificationRepository.searchDtos(query);
     }
 
     public void markAsRead(Long notificationId) {
@@ -0,0 +1,104 @@
+package com.auction.service;
+
+import com.auction.model.ProxyBid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Resolves competing proxy bids. Given the visible state of an auction and every
+ * bidder's standing maximum, it works out in one step where the bidding war would
+ * end if each proxy kept raising by the minimum increment, and returns that single
+ * bid instead of the whole sequence.
+ *
+ * Pure computation over its arguments, so it can run on a bid engine shard as well
+ * as inside a database transaction.
+ */
+@Component
+public class ProxyBidResolver {
+
+    // Highest maximum first; the earlier one wins a tie
+    private static final Comparator<Proxy> STRONGEST_FIRST = Comparator
+            .comparing(Proxy::maxAmount).reversed()
+            .thenComparing(Proxy::placedAt);
+
+    @Value("${bid.proxy.increment:1.00}")
+    private BigDecimal increment;
+
+    /**
+     * Returns the bid the proxies place in response to the given visible state, or
+     * null when no proxy can or needs to bid. highestBid and leaderId describe the
+     * auction after the bid that triggered the resolution (both null when nobody
+     * has bid yet). The response is always above highestBid and leaves no other
+     * proxy able to outbid it, so it never needs to be resolved again.
+     */
+    public Response resolve(BigDecimal startingPrice, BigDecimal highestBid, Long leaderId, Collection<Proxy> proxies) {
+        if (highestBid == null) {
+            return open(startingPrice, proxies);
+        }
+
+        List<Proxy> challengers = proxies.stream()
+                .filter(proxy -> !proxy.bidderId().equals(leaderId))
+                .filter(proxy -> proxy.maxAmount().compareTo(highestBid) > 0)
+                .sorted(STRONGEST_FIRST)
+                .toList();
+        if (challengers.isEmpty()) {
+            return null;
+        }
+
+        Proxy strongest = challengers.get(0);
+        Proxy leaderProxy = proxies.stream()
+                .filter(proxy -> proxy.bidderId().equals(leaderId))
+                .findFirst()
+                .orElse(null);
+        BigDecimal leaderMax = leaderProxy != null ? leaderProxy.maxAmount().max(highestBid) : highestBid;
+
+        // The leader holds the visible bid, so it keeps the lead on a tie
+        if (leaderProxy != null && leaderMax.compareTo(strongest.maxAmount()) >= 0) {
+            return new Response(leaderId, leaderProxy.bidderName(),
+                    leaderMax.min(strongest.maxAmount().add(increment)));
+        }
+
+        BigDecimal runnerUp = challengers.size() > 1 ? leaderMax.max(challengers.get(1).maxAmount()) : leaderMax;
+        return new Response(strongest.bidderId(), strongest.bidderName(),
+                strongest.maxAmount().min(runnerUp.add(increment)));
+    }
+
+    // No visible bid yet: the strongest proxy opens at the starting price or just above the runner-up
+    private Response open(BigDecimal startingPrice, Collection<Proxy> proxies) {
+        List<Proxy> bidders = proxies.stream()
+                .filter(proxy -> proxy.maxAmount().compareTo(startingPrice) >= 0)
+                .sorted(STRONGEST_FIRST)
+                .toList();
+        if (bidders.isEmpty()) {
+            return null;
+        }
+        Proxy strongest = bidders.get(0);
+        BigDecimal amount = bidders.size() > 1
+                ? strongest.maxAmount().min(bidders.get(1).maxAmount().add(increment))
+                : startingPrice;
+        return new Response(strongest.bidderId(), strongest.bidderName(), amount);
+    }
+
+    /**
+     * A bidder's standing maximum, detached from the persistence context.
+     */
+    public record Proxy(Long bidderId, String bidderName, BigDecimal maxAmount, LocalDateTime placedAt) {
+
+        public static Proxy of(ProxyBid proxyBid) {
+            return new Proxy(proxyBid.getBidder().getUserId(), proxyBid.getBidder().getUsername(),
+                    proxyBid.getMaxAmount(), proxyBid.getPlacedAt());
+        }
+    }
+
+    /**
+     * The bid placed on behalf of a proxy.
+     */
+    public record Response(Long bidderId, String bidderName, BigDecimal amount) {
+    }
+}
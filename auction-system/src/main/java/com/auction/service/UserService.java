@@ -1,5 +1,6 @@
 package com.auction.service;
 
+import com.auction.dto.KeysetPage;
 import com.auction.exception.ResourceNotFoundException;
 import com.auction.model.User;
 import com.auction.repository.UserRepository;
@@ -25,6 +26,12 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    public KeysetPage<User> getUsers(Long after, Integer limit) {
+        List<User> rows = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(
+                KeysetPage.start(after), KeysetPage.fetchLimit(limit));
+        return KeysetPage.of(rows, limit, User::getUserId);
+    }
+
     public User getUserById(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
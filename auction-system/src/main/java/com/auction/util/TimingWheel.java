@@ -0,0 +1,106 @@
+package com.auction.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel (Varghese and Lauck). Deadlines are hashed into a ring of
+ * slots by tick, so scheduling, rescheduling and cancelling a key are O(1) and each
+ * tick only looks at the keys in one slot, however many keys are scheduled.
+ * Deadlines further away than one revolution stay in their slot and are skipped
+ * until the revolution in which they fall due.
+ *
+ * Each key has at most one deadline; scheduling it again replaces the old one.
+ * Not tied to a clock or thread: the owner calls {@link #advance(long)} with the
+ * current time and acts on the keys that fell due. All methods are thread-safe.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Set<K>> slots;
+    private final Map<K, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new HashSet<>());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules the key to fall due at the given time. Deadlines that have already
+     * passed fall due on the next tick.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.max(ceilTick(deadlineMillis), currentTick + 1);
+        entries.put(key, new Entry(deadlineMillis, tick));
+        slot(tick).add(key);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        slot(entry.tick).remove(key);
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to the given time and returns the keys that fell due, in
+     * tick order. A wheel that is behind by more than a revolution visits every
+     * slot once, which still finds every due key.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> due = new ArrayList<>();
+        long ticks = Math.min(targetTick - currentTick, slots.size());
+        for (long i = 0; i < ticks; i++) {
+            Iterator<K> keys = slot(++currentTick).iterator();
+            while (keys.hasNext()) {
+                K key = keys.next();
+                if (entries.get(key).deadlineMillis <= nowMillis) {
+                    keys.remove();
+                    entries.remove(key);
+                    due.add(key);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return due;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private long ceilTick(long millis) {
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+
+    private Set<K> slot(long tick) {
+        return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+    }
+
+    private static final class Entry {
+        private final long deadlineMillis;
+        private final long tick;
+
+        private Entry(long deadlineMillis, long tick) {
+            this.deadlineMillis = deadlineMillis;
+            this.tick = tick;
+        }
+    }
+}
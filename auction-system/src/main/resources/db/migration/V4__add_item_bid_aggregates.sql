@@ -0,0 +1,11 @@
+-- Live auction aggregates maintained with every accepted or deleted bid
+ALTER TABLE items ADD COLUMN IF NOT EXISTS current_highest_bid NUMERIC(38, 2);
+ALTER TABLE items ADD COLUMN IF NOT EXISTS bid_count INTEGER;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS leading_bidder_id BIGINT;
+
+UPDATE items SET
+    bid_count = (SELECT COUNT(*) FROM bids b WHERE b.item_id = items.item_id),
+    current_highest_bid = (SELECT MAX(b.bid_amount) FROM bids b WHERE b.item_id = items.item_id),
+    leading_bidder_id = (SELECT b.bidder_id FROM bids b WHERE b.item_id = items.item_id
+                         ORDER BY b.bid_amount DESC, b.bid_time ASC LIMIT 1)
+WHERE bid_count IS NULL;
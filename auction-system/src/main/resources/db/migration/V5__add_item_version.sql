@@ -0,0 +1,2 @@
+-- Optimistic version for compare-and-set bid acceptance
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- Standing maximum bids resolved by the proxy bidding engine
+CREATE TABLE IF NOT EXISTS proxy_bids (
+    proxy_bid_id BIGSERIAL PRIMARY KEY,
+    item_id BIGINT NOT NULL REFERENCES items(item_id),
+    bidder_id BIGINT NOT NULL REFERENCES users(user_id),
+    max_amount NUMERIC(38, 2) NOT NULL,
+    placed_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_proxy_bids_item_bidder UNIQUE (item_id, bidder_id)
+);
@@ -0,0 +1,18 @@
+-- Proxy bids go with their item. The old constraint is dropped by lookup because
+-- schemas created by Hibernate name it differently from V6.
+DO $$
+DECLARE
+    fk TEXT;
+BEGIN
+    FOR fk IN
+        SELECT c.conname FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.contype = 'f' AND c.conrelid = 'proxy_bids'::regclass
+          AND c.confrelid = 'items'::regclass AND a.attname = 'item_id'
+    LOOP
+        EXECUTE format('ALTER TABLE proxy_bids DROP CONSTRAINT %I', fk);
+    END LOOP;
+END $$;
+
+ALTER TABLE proxy_bids ADD CONSTRAINT proxy_bids_item_id_fkey
+    FOREIGN KEY (item_id) REFERENCES items(item_id) ON DELETE CASCADE;
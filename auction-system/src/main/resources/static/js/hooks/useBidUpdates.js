@@ -1,35 +1,109 @@
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { useWebSocket } from '../contexts/WebSocketContext';
 
 export const useBidUpdates = (itemId) => {
     const { connected, subscribe, send } = useWebSocket();
     const [bids, setBids] = useState([]);
     const [error, setError] = useState(null);
+    const [watching, setWatching] = useState(null);
+    // Latest bid that took the lead from this user, on any item
+    const [outbid, setOutbid] = useState(null);
+    // Last itemBidId seen on the item topic, kept across reconnects
+    const lastSeq = useRef(null);
+    // Live frames held back while a replay is outstanding, so they cannot skip past it
+    const held = useRef(null);
+
+    const addItemBid = (bid) => {
+        if (bid.itemBidId != null) {
+            if (lastSeq.current != null && bid.itemBidId <= lastSeq.current) {
+                return;
+            }
+            lastSeq.current = bid.itemBidId;
+        }
+        setBids(prev => [...prev, bid]);
+    };
+
+    const onItemFrame = (bid) => {
+        if (held.current) {
+            held.current.push(bid);
+        } else {
+            addItemBid(bid);
+        }
+    };
+
+    // Runs before the subscription below, so a new item starts without a sequence
+    useEffect(() => {
+        lastSeq.current = null;
+        held.current = null;
+    }, [itemId]);
 
     useEffect(() => {
         if (connected) {
-            // Subscribe to general bid updates
-            const generalSubscription = subscribe('/topic/bidUpdates', (message) => {
-                const bid = JSON.parse(message.body);
-                setBids(prev => [...prev, bid]);
+            // Every bid of every item; only needed without an item, and may be disabled on the server
+            let generalSubscription = null;
+            if (!itemId) {
+                generalSubscription = subscribe('/topic/bidUpdates', (message) => {
+                    const bid = JSON.parse(message.body);
+                    setBids(prev => [...prev, bid]);
+                });
+            }
+
+            // Only delivered to sessions connected with a token
+            const outbidSubscription = subscribe('/user/queue/outbid', (message) => {
+                setOutbid(JSON.parse(message.body));
             });
 
             // Subscribe to item-specific bid updates if itemId is provided
             let itemSubscription = null;
+            let watchersSubscription = null;
+            let replay = null;
             if (itemId) {
+                // After a reconnect, hold live frames until the missed ones are in
+                held.current = lastSeq.current != null ? [] : null;
                 itemSubscription = subscribe(`/topic/bid/${itemId}`, (message) => {
-                    const bid = JSON.parse(message.body);
-                    setBids(prev => [...prev, bid]);
+                    onItemFrame(JSON.parse(message.body));
+                });
+                // Sent every few seconds while the number of people watching changes
+                watchersSubscription = subscribe(`/topic/bid/${itemId}/watchers`, (message) => {
+                    setWatching(JSON.parse(message.body).watching);
                 });
+
+                // After a reconnect, ask for only what was missed instead of refetching every bid
+                if (held.current) {
+                    replay = subscribe(`/app/bid/${itemId}/since/${lastSeq.current}`, (message) => {
+                        const missed = JSON.parse(message.body);
+                        if (missed.snapshot) {
+                            addItemBid(missed.snapshot);
+                        }
+                        missed.bids.forEach(addItemBid);
+                        // Frames already covered by the replay are dropped by their itemBidId
+                        const live = held.current || [];
+                        held.current = null;
+                        live.forEach(addItemBid);
+                        replay.unsubscribe();
+                        replay = null;
+                    });
+                }
             }
 
             return () => {
                 if (generalSubscription) {
                     generalSubscription.unsubscribe();
                 }
+                if (outbidSubscription) {
+                    outbidSubscription.unsubscribe();
+                }
                 if (itemSubscription) {
                     itemSubscription.unsubscribe();
                 }
+                if (watchersSubscription) {
+                    watchersSubscription.unsubscribe();
+                }
+                if (replay) {
+                    replay.unsubscribe();
+                }
+                // Anything held was not counted in lastSeq, so the next replay brings it again
+                held.current = null;
             };
         }
     }, [connected, subscribe, itemId]);
@@ -54,6 +128,8 @@ export const useBidUpdates = (itemId) => {
     return {
         bids,
         error,
+        watching,
+        outbid,
         placeBid,
         connected
     };
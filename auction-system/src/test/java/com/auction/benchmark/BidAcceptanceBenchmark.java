@@ -0,0 +1,212 @@
+package com.auction.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for bid acceptance against PostgreSQL. Compares the
+ * COMPARE_AND_SET statement pattern (plain read, conditional versioned UPDATE,
+ * retry on loss) with pessimistic SELECT ... FOR UPDATE serialization, with every
+ * thread outbidding the current high bid on a small set of hot items.
+ *
+ * The benchmark works on its own bench_items / bench_bids tables, so it can run
+ * against the development database:
+ *
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *       -Dbench.db.url=jdbc:postgresql://localhost:5432/auction_db \
+ *       com.auction.benchmark.BidAcceptanceBenchmark
+ *
+ * Pass -Dbench.threads=N to change the number of concurrent bidders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+public class BidAcceptanceBenchmark {
+
+    private static final String SELECT_ITEM =
+            "SELECT version, current_highest_bid FROM bench_items WHERE item_id = ?";
+    private static final String SELECT_ITEM_FOR_UPDATE =
+            "SELECT current_highest_bid FROM bench_items WHERE item_id = ? FOR UPDATE";
+    private static final String COMPARE_AND_SET =
+            "UPDATE bench_items SET current_highest_bid = ?, bid_count = bid_count + 1, version = version + 1 " +
+            "WHERE item_id = ? AND version = ? AND current_highest_bid < ?";
+    private static final String UPDATE_ITEM =
+            "UPDATE bench_items SET current_highest_bid = ?, bid_count = bid_count + 1, version = version + 1 " +
+            "WHERE item_id = ?";
+    private static final String INSERT_BID =
+            "INSERT INTO bench_bids (item_id, bidder_id, bid_amount, bid_time) VALUES (?, ?, ?, ?)";
+
+    // Number of items the bidders spread over; 1 is a single hot item
+    @Param({"1", "16"})
+    public int hotItems;
+
+    @Setup(Level.Trial)
+    public void createTables() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_bids");
+            statement.execute("DROP TABLE IF EXISTS bench_items");
+            statement.execute("CREATE TABLE bench_items (item_id BIGINT PRIMARY KEY, " +
+                    "current_highest_bid NUMERIC(38, 2) NOT NULL, bid_count INTEGER NOT NULL, version BIGINT NOT NULL)");
+            statement.execute("CREATE TABLE bench_bids (bid_id BIGSERIAL PRIMARY KEY, item_id BIGINT NOT NULL, " +
+                    "bidder_id BIGINT NOT NULL, bid_amount NUMERIC(38, 2) NOT NULL, bid_time TIMESTAMP NOT NULL)");
+            for (int i = 1; i <= hotItems; i++) {
+                statement.execute("INSERT INTO bench_items VALUES (" + i + ", 1, 0, 0)");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void dropTables() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_bids");
+            statement.execute("DROP TABLE IF EXISTS bench_items");
+        }
+    }
+
+    // Reports the number of lost compare-and-set attempts next to the throughput
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bidder {
+        Connection connection;
+        long bidderId;
+        public long retries;
+
+        @Setup(Level.Trial)
+        public void connect() throws SQLException {
+            connection = BidAcceptanceBenchmark.connect();
+            connection.setAutoCommit(false);
+            bidderId = Thread.currentThread().getId();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public BigDecimal compareAndSet(Bidder bidder) throws SQLException, InterruptedException {
+        Connection connection = bidder.connection;
+        long itemId = pickItem();
+        for (int attempt = 1; ; attempt++) {
+            long version;
+            BigDecimal highest;
+            try (PreparedStatement select = connection.prepareStatement(SELECT_ITEM)) {
+                select.setLong(1, itemId);
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    version = rs.getLong(1);
+                    highest = rs.getBigDecimal(2);
+                }
+            }
+            BigDecimal amount = highest.add(BigDecimal.ONE);
+            int updated;
+            try (PreparedStatement update = connection.prepareStatement(COMPARE_AND_SET)) {
+                update.setBigDecimal(1, amount);
+                update.setLong(2, itemId);
+                update.setLong(3, version);
+                update.setBigDecimal(4, amount);
+                updated = update.executeUpdate();
+            }
+            if (updated == 1) {
+                insertBid(connection, itemId, bidder.bidderId, amount);
+                connection.commit();
+                return amount;
+            }
+            connection.rollback();
+            bidder.retries++;
+            // Same jittered exponential backoff as BidService
+            Thread.sleep(ThreadLocalRandom.current().nextLong((5L << Math.min(attempt - 1, 10)) + 1));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal selectForUpdate(Bidder bidder) throws SQLException {
+        Connection connection = bidder.connection;
+        long itemId = pickItem();
+        BigDecimal highest;
+        try (PreparedStatement select = connection.prepareStatement(SELECT_ITEM_FOR_UPDATE)) {
+            select.setLong(1, itemId);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                highest = rs.getBigDecimal(1);
+            }
+        }
+        BigDecimal amount = highest.add(BigDecimal.ONE);
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_ITEM)) {
+            update.setBigDecimal(1, amount);
+            update.setLong(2, itemId);
+            update.executeUpdate();
+        }
+        insertBid(connection, itemId, bidder.bidderId, amount);
+        connection.commit();
+        return amount;
+    }
+
+    private long pickItem() {
+        return hotItems == 1 ? 1 : ThreadLocalRandom.current().nextLong(1, hotItems + 1);
+    }
+
+    private static void insertBid(Connection connection, long itemId, long bidderId, BigDecimal amount)
+            throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_BID)) {
+            insert.setLong(1, itemId);
+            insert.setLong(2, bidderId);
+            insert.setBigDecimal(3, amount);
+            insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            insert.executeUpdate();
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/auction_db"),
+                System.getProperty("bench.db.user", "postgres"),
+                System.getProperty("bench.db.password", ""));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BidAcceptanceBenchmark.class.getSimpleName())
+                .threads(Integer.getInteger("bench.threads", 8))
+                .jvmArgsAppend(
+                        "-Dbench.db.url=" + System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/auction_db"),
+                        "-Dbench.db.user=" + System.getProperty("bench.db.user", "postgres"),
+                        "-Dbench.db.password=" + System.getProperty("bench.db.password", ""))
+                .build();
+        new Runner(options).run();
+    }
+}
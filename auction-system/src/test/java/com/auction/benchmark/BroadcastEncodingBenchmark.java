@@ -0,0 +1,101 @@
+package com.auction.benchmark;
+
+import com.auction.model.BidMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handing one bid frame to the broker for the two bid topics and one
+ * outbid notification: converting the BidMessage on every send, as
+ * convertAndSend does, against converting it once and sending the same message
+ * to each destination, as BidBroadcaster does. The broker is a channel that only
+ * consumes the messages, so the numbers are the template's share of a broadcast.
+ *
+ * Run with the GC profiler, whose gc.alloc.rate.norm is the bytes allocated per
+ * broadcast:
+ *
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *       com.auction.benchmark.BroadcastEncodingBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadcastEncodingBenchmark {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private BidMessage bidMessage;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        // The converters the WebSocket configuration gives the broker template
+        MappingJackson2MessageConverter jsonConverter = new MappingJackson2MessageConverter();
+        jsonConverter.setObjectMapper(new ObjectMapper());
+        MessageChannel broker = (message, timeout) -> {
+            blackhole.consume(message);
+            return true;
+        };
+        messagingTemplate = new SimpMessagingTemplate(broker);
+        messagingTemplate.setMessageConverter(new CompositeMessageConverter(List.of(
+                new StringMessageConverter(), new ByteArrayMessageConverter(), jsonConverter)));
+
+        bidMessage = new BidMessage();
+        bidMessage.setItemId(42L);
+        bidMessage.setItemBidId(1234L);
+        bidMessage.setAmount(1525.5);
+        bidMessage.setBidderId(7L);
+        bidMessage.setBidderName("collector_jane");
+        bidMessage.setBidCountDelta(1);
+    }
+
+    @Benchmark
+    public void convertPerDestination() {
+        messagingTemplate.convertAndSendToUser("3", "/queue/outbid", bidMessage);
+        messagingTemplate.convertAndSend("/topic/bidUpdates", bidMessage);
+        messagingTemplate.convertAndSend("/topic/bid/42", bidMessage);
+    }
+
+    @Benchmark
+    public void encodeOnce() {
+        Message<?> encoded = messagingTemplate.getMessageConverter().toMessage(bidMessage, null);
+        messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + "3/queue/outbid", encoded);
+        messagingTemplate.send("/topic/bidUpdates", encoded);
+        messagingTemplate.send("/topic/bid/42", encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BroadcastEncodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,212 @@
+package com.auction.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fan-out benchmark for the STOMP broker modes (websocket.broker.mode). Opens
+ * bench.clients STOMP sessions spread round-robin over the nodes in bench.urls, all
+ * subscribed to one item's /topic/bid/{itemId}, then places bench.bids bids on that
+ * item through the first node, one at a time so each outbids the last, at up to
+ * bench.rate bids per second.
+ *
+ * It reports, per node, how many of the expected frames arrived and the latency from
+ * sending the bid request to receiving its frame, and the average process CPU of
+ * every node over the run, sampled from /actuator/metrics/process.cpu.usage. This is
+ * not a JMH benchmark: it drives running servers, so start them first, e.g.
+ *
+ *   java -jar target/auction-system.jar --websocket.broker.mode=EMBEDDED
+ *
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *       -Dbench.urls=http://localhost:8080 -Dbench.item=42 -Dbench.bidder=7 \
+ *       -Dbench.token=$JWT -Dbench.clients=500 \
+ *       com.auction.benchmark.BroadcastFanoutBenchmark
+ *
+ * The item has to be active, not sold by the bidder, and without bids above
+ * bench.start-amount. Bids are numbered by their amount, one unit apart.
+ */
+public class BroadcastFanoutBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        List<String> urls = Arrays.asList(System.getProperty("bench.urls", "http://localhost:8080").split(","));
+        long itemId = Long.getLong("bench.item", 1L);
+        long bidderId = Long.getLong("bench.bidder", 1L);
+        String token = System.getProperty("bench.token", "");
+        int clients = Integer.getInteger("bench.clients", 200);
+        int bids = Integer.getInteger("bench.bids", 500);
+        int rate = Integer.getInteger("bench.rate", 50);
+        BigDecimal startAmount = new BigDecimal(System.getProperty("bench.start-amount", "1000"));
+
+        // Send time of bid i, in System.nanoTime; frames are matched to bids by amount
+        AtomicLongArray sentAt = new AtomicLongArray(bids);
+        Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+        urls.forEach(url -> recorders.put(url, new Recorder(clients * (long) bids)));
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new SimpleMessageConverter());
+        stompClient.setInboundMessageSizeLimit(64 * 1024);
+
+        List<StompSession> sessions = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            String url = urls.get(i % urls.size());
+            Recorder recorder = recorders.get(url);
+            StompSession session = stompClient.connectAsync(url + "/ws", new StompSessionHandlerAdapter() { })
+                    .get(10, TimeUnit.SECONDS);
+            session.subscribe("/topic/bid/" + itemId, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return byte[].class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    long receivedAt = System.nanoTime();
+                    int bid = bidIndex((byte[]) payload, startAmount);
+                    if (bid >= 0 && bid < bids && sentAt.get(bid) != 0) {
+                        recorder.record(receivedAt - sentAt.get(bid));
+                    }
+                }
+            });
+            sessions.add(session);
+        }
+        // Let the subscriptions reach the broker before the first bid
+        Thread.sleep(2000);
+        System.out.printf("%d clients subscribed to item %d on %s%n", clients, itemId, urls);
+
+        HttpClient httpClient = HttpClient.newHttpClient();
+        Map<String, double[]> cpu = new ConcurrentHashMap<>();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        scheduler.scheduleAtFixedRate(() -> urls.forEach(url ->
+                cpu.merge(url, new double[] {cpuUsage(httpClient, url), 1},
+                        (a, b) -> new double[] {a[0] + b[0], a[1] + b[1]})), 0, 1, TimeUnit.SECONDS);
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long started = System.nanoTime();
+        scheduler.scheduleAtFixedRate(() -> {
+            int bid = next.getAndIncrement();
+            if (bid >= bids) {
+                return;
+            }
+            BigDecimal amount = startAmount.add(BigDecimal.valueOf(bid + 1));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(urls.get(0)
+                            + "/api/bids?itemId=" + itemId + "&bidderId=" + bidderId + "&bidAmount=" + amount))
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            sentAt.set(bid, System.nanoTime());
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 300) {
+                    rejected.incrementAndGet();
+                }
+            } catch (IOException | InterruptedException e) {
+                rejected.incrementAndGet();
+            }
+        }, 0, 1_000_000 / rate, TimeUnit.MICROSECONDS);
+
+        while (next.get() < bids) {
+            Thread.sleep(100);
+        }
+        // Give the last frames time to arrive
+        Thread.sleep(3000);
+        scheduler.shutdownNow();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("%d bids in %.1f s, %d rejected%n", bids, seconds, rejected.get());
+        for (String url : urls) {
+            Recorder recorder = recorders.get(url);
+            long expected = (long) bids * ((clients + urls.size() - 1 - urls.indexOf(url)) / urls.size());
+            double[] samples = cpu.getOrDefault(url, new double[] {0, 1});
+            System.out.printf("%s: %d/%d frames, latency ms p50 %.2f p90 %.2f p99 %.2f max %.2f, cpu %.1f%%%n",
+                    url, recorder.count(), expected,
+                    recorder.percentile(0.50), recorder.percentile(0.90), recorder.percentile(0.99),
+                    recorder.percentile(1.0), 100 * samples[0] / samples[1]);
+        }
+
+        sessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+        System.exit(0);
+    }
+
+    private static int bidIndex(byte[] payload, BigDecimal startAmount) {
+        try {
+            JsonNode frame = objectMapper.readTree(payload);
+            return BigDecimal.valueOf(frame.path("amount").asDouble()).subtract(startAmount).intValue() - 1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static double cpuUsage(HttpClient httpClient, String url) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/actuator/metrics/process.cpu.usage")).build();
+            JsonNode metric = objectMapper.readTree(httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            return metric.path("measurements").path(0).path("value").asDouble();
+        } catch (IOException | InterruptedException e) {
+            return 0;
+        }
+    }
+
+    // Latencies in nanoseconds, written by the STOMP client threads
+    private static final class Recorder {
+        private final long[] latencies;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Recorder(long capacity) {
+            this.latencies = new long[(int) Math.min(capacity, Integer.MAX_VALUE - 8)];
+        }
+
+        private void record(long latency) {
+            int index = count.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = latency;
+            }
+        }
+
+        private int count() {
+            return Math.min(count.get(), latencies.length);
+        }
+
+        private double percentile(double percentile) {
+            int size = count();
+            if (size == 0) {
+                return Double.NaN;
+            }
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, rank))] / 1e6;
+        }
+    }
+}
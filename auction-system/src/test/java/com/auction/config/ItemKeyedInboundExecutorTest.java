@@ -0,0 +1,36 @@
+package com.auction.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemKeyedInboundExecutorTest {
+
+    @Test
+    void bidFrameIsKeyedByItem() {
+        assertThat(ItemKeyedInboundExecutor.bidItemIdOf(frame(SimpMessageType.MESSAGE, "/app/bid/42"))).isEqualTo(42L);
+    }
+
+    @Test
+    void otherFramesAreNotKeyed() {
+        assertThat(ItemKeyedInboundExecutor.bidItemIdOf(frame(SimpMessageType.SUBSCRIBE, "/app/bid/42/since/3")))
+                .isNull();
+        assertThat(ItemKeyedInboundExecutor.bidItemIdOf(frame(SimpMessageType.SUBSCRIBE, "/app/bid/42"))).isNull();
+        assertThat(ItemKeyedInboundExecutor.bidItemIdOf(frame(SimpMessageType.MESSAGE, "/app/bid/42/since/3")))
+                .isNull();
+        assertThat(ItemKeyedInboundExecutor.bidItemIdOf(frame(SimpMessageType.MESSAGE, "/app/placeBid"))).isNull();
+        assertThat(ItemKeyedInboundExecutor.bidItemIdOf(frame(SimpMessageType.MESSAGE, "/app/bid/x"))).isNull();
+        assertThat(ItemKeyedInboundExecutor.bidItemIdOf(frame(SimpMessageType.CONNECT, null))).isNull();
+    }
+
+    private static Message<byte[]> frame(SimpMessageType type, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setDestination(destination);
+        headers.setSessionId("s1");
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+}
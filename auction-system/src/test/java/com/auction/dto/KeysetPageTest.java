@@ -0,0 +1,90 @@
+package com.auction.dto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetPageTest {
+
+    @Test
+    void fetchLimitAsksForOneRowMoreThanThePage() {
+        assertThat(KeysetPage.fetchLimit(null).max()).isEqualTo(KeysetPage.DEFAULT_LIMIT + 1);
+        assertThat(KeysetPage.fetchLimit(10).max()).isEqualTo(11);
+    }
+
+    @Test
+    void limitIsCappedAndAtLeastOne() {
+        assertThat(KeysetPage.fetchLimit(10_000).max()).isEqualTo(KeysetPage.MAX_LIMIT + 1);
+        assertThat(KeysetPage.fetchLimit(0).max()).isEqualTo(2);
+        assertThat(KeysetPage.fetchLimit(-5).max()).isEqualTo(2);
+    }
+
+    @Test
+    void extraRowMeansAnotherPageAfterTheLastIdShown() {
+        KeysetPage<Long> page = KeysetPage.of(ids(1, 4), 3, Function.identity());
+
+        assertThat(page.getItems()).containsExactly(1L, 2L, 3L);
+        assertThat(page.getNextCursor()).isEqualTo(3L);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        assertThat(KeysetPage.of(ids(1, 3), 3, Function.identity()).getNextCursor()).isNull();
+        assertThat(KeysetPage.of(ids(1, 2), 3, Function.identity()).getNextCursor()).isNull();
+        assertThat(KeysetPage.of(List.<Long>of(), 3, Function.identity()).getItems()).isEmpty();
+    }
+
+    @Test
+    void oversizedLimitPagesByTheCap() {
+        List<Long> rows = ids(1, KeysetPage.MAX_LIMIT + 1);
+
+        KeysetPage<Long> page = KeysetPage.of(rows, 10_000, Function.identity());
+
+        assertThat(page.getItems()).hasSize(KeysetPage.MAX_LIMIT);
+        assertThat(page.getNextCursor()).isEqualTo((long) KeysetPage.MAX_LIMIT);
+    }
+
+    @Test
+    void startsBeforeTheFirstIdWithoutACursor() {
+        assertThat(KeysetPage.start(null)).isZero();
+        assertThat(KeysetPage.start(42L)).isEqualTo(42L);
+    }
+
+    @Test
+    void followingTheCursorReadsEveryRowOnce() {
+        List<Long> table = ids(1, 23);
+        List<Long> read = new ArrayList<>();
+        Long after = null;
+        do {
+            long start = KeysetPage.start(after);
+            List<Long> rows = table.stream().filter(id -> id > start)
+                    .limit(KeysetPage.fetchLimit(5).max()).toList();
+            KeysetPage<Long> page = KeysetPage.of(rows, 5, Function.identity());
+            read.addAll(page.getItems());
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertThat(read).isEqualTo(table);
+    }
+
+    @Test
+    void responseCarriesTheCursorHeaderOnlyWhenAnotherPageFollows() {
+        ResponseEntity<List<String>> more = KeysetPage.of(ids(1, 3), 2, Function.identity())
+                .map(id -> "item" + id).toResponse();
+        ResponseEntity<List<Long>> last = KeysetPage.of(ids(1, 2), 2, Function.identity()).toResponse();
+
+        assertThat(more.getBody()).containsExactly("item1", "item2");
+        assertThat(more.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER)).isEqualTo("2");
+        assertThat(last.getHeaders().containsKey(KeysetPage.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().toList();
+    }
+}
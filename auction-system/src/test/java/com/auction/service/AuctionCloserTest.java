@@ -0,0 +1,143 @@
+package com.auction.service;
+
+import com.auction.model.AuctionResult;
+import com.auction.model.Item;
+import com.auction.repository.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuctionCloserTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final AuctionResultService auctionResultService = mock(AuctionResultService.class);
+    private final BidEngine bidEngine = mock(BidEngine.class);
+    private AuctionCloser closer;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // Every item drains at once unless a test says otherwise
+        when(bidEngine.drain(any(), anyLong())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(auctionResultService.closeIfExpired(anyLong())).thenReturn(Optional.of(new AuctionResult()));
+        when(auctionResultService.settleExpired(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        closer = new AuctionCloser(itemRepository, auctionResultService, bidEngine, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(closer, "tickMs", 20L);
+        ReflectionTestUtils.setField(closer, "wheelSize", 64);
+        ReflectionTestUtils.setField(closer, "workerCount", 2);
+        ReflectionTestUtils.setField(closer, "bulkThreshold", 3);
+        ReflectionTestUtils.setField(closer, "chunkSize", 2);
+        ReflectionTestUtils.setField(closer, "drainTimeoutMs", 100L);
+        closer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        closer.stop();
+    }
+
+    @Test
+    void dueAuctionIsDrainedThenClosedAndOnlyThen() throws InterruptedException {
+        when(itemRepository.findActiveAuctionDeadlines()).thenReturn(List.of(
+                deadline(1L, LocalDateTime.now().plusNanos(100_000_000)),
+                deadline(2L, LocalDateTime.now().plusHours(1))));
+        closer.start();
+
+        verify(auctionResultService, timeout(2000)).closeIfExpired(1L);
+        InOrder order = inOrder(bidEngine, auctionResultService);
+        order.verify(bidEngine).drain(eq(List.of(1L)), anyLong());
+        order.verify(auctionResultService).closeIfExpired(1L);
+        order.verify(bidEngine, timeout(2000)).evict(1L);
+        verify(auctionResultService, never()).closeIfExpired(2L);
+    }
+
+    @Test
+    void itemMovedToALaterDeadlineIsNotClosedEarly() throws InterruptedException {
+        when(itemRepository.findActiveAuctionDeadlines()).thenReturn(List.of());
+        closer.start();
+        Item item = item(1L, LocalDateTime.now().plusNanos(100_000_000));
+        closer.track(item);
+        item.setEndDate(LocalDateTime.now().plusHours(1));
+        closer.track(item);
+        Item cancelled = item(2L, LocalDateTime.now().plusNanos(100_000_000));
+        closer.track(cancelled);
+        closer.untrack(2L);
+
+        Thread.sleep(300);
+        verify(bidEngine, never()).drain(any(), anyLong());
+        verify(auctionResultService, never()).closeIfExpired(anyLong());
+    }
+
+    @Test
+    void auctionNotDrainedInTimeIsRetriedOnALaterTick() throws InterruptedException {
+        AtomicBoolean written = new AtomicBoolean();
+        when(bidEngine.drain(eq(List.of(1L)), anyLong())).thenAnswer(invocation ->
+                written.getAndSet(true) ? List.of(1L) : List.of());
+        when(itemRepository.findActiveAuctionDeadlines()).thenReturn(List.of(
+                deadline(1L, LocalDateTime.now().minusMinutes(1))));
+        closer.start();
+
+        verify(auctionResultService, timeout(2000)).closeIfExpired(1L);
+        verify(bidEngine, atLeast(2)).drain(eq(List.of(1L)), anyLong());
+        verify(bidEngine, atLeast(2)).evict(1L);
+    }
+
+    @Test
+    void bulkSettlementSettlesOnlyDrainedItems() throws InterruptedException {
+        when(bidEngine.drain(any(), anyLong())).thenAnswer(invocation ->
+                invocation.<List<Long>>getArgument(0).stream().filter(itemId -> itemId != 2L).toList());
+
+        AuctionCloser.CloseRun run = closer.closeExpired(List.of(1L, 2L, 3L), "sweep").join();
+
+        assertThat(run.closed()).isEqualTo(2);
+        assertThat(run.failed()).isEqualTo(1);
+        verify(auctionResultService).settleExpired(List.of(1L));
+        verify(auctionResultService).settleExpired(List.of(3L));
+        verify(auctionResultService, never()).closeIfExpired(anyLong());
+        verify(bidEngine).evict(1L);
+        verify(bidEngine).evict(2L);
+        verify(bidEngine).evict(3L);
+    }
+
+    private static ItemRepository.AuctionDeadline deadline(Long itemId, LocalDateTime endDate) {
+        return new ItemRepository.AuctionDeadline() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return endDate;
+            }
+        };
+    }
+
+    private static Item item(Long itemId, LocalDateTime endDate) {
+        Item item = new Item();
+        item.setItemId(itemId);
+        item.setItemStatus(Item.ItemStatus.ACTIVE);
+        item.setEndDate(endDate);
+        return item;
+    }
+}
@@ -0,0 +1,145 @@
+package com.auction.service;
+
+import com.auction.model.AcceptedBid;
+import com.auction.model.Item;
+import com.auction.model.User;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.ProxyBidRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BidEngineTest {
+
+    private static final Long ITEM_ID = 1L;
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ProxyBidRepository proxyBidRepository = mock(ProxyBidRepository.class);
+    private final BidBroadcaster bidBroadcaster = mock(BidBroadcaster.class);
+    private final BidWriteBehind bidWriteBehind = mock(BidWriteBehind.class);
+    private BidEngine bidEngine;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        ProxyBidResolver proxyBidResolver = new ProxyBidResolver();
+        ReflectionTestUtils.setField(proxyBidResolver, "increment", BigDecimal.ONE);
+        bidEngine = new BidEngine(itemRepository, proxyBidRepository, proxyBidResolver, bidBroadcaster,
+                bidWriteBehind, mock(DataSource.class));
+        ReflectionTestUtils.setField(bidEngine, "shardCount", 2);
+        ReflectionTestUtils.setField(bidEngine, "queueCapacity", 100);
+        bidEngine.start();
+
+        Item item = new Item();
+        item.setItemId(ITEM_ID);
+        item.setTitle("Lamp");
+        item.setItemStatus(Item.ItemStatus.ACTIVE);
+        item.setStartingPrice(new BigDecimal("10"));
+        item.setEndDate(LocalDateTime.now().plusHours(1));
+        item.setCurrentHighestBid(new BigDecimal("100"));
+        item.setLeadingBidderId(9L);
+        item.setLastItemBidId(5L);
+        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
+        when(proxyBidRepository.findByItemIdWithBidder(ITEM_ID)).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bidEngine.stop();
+    }
+
+    @Test
+    void reloadKeepsAcceptedBidsThatAreNotWrittenYet() throws Exception {
+        submit(2L, "120");
+        // The row still says 100, the write-behind holds the 120
+        when(bidWriteBehind.unflushed(ITEM_ID)).thenReturn(
+                new AcceptedBid(ITEM_ID, 1L, 2L, "user2", new BigDecimal("120"), LocalDateTime.now()));
+        bidEngine.evict(ITEM_ID);
+
+        assertThatThrownBy(() -> submit(3L, "110"))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(submit(3L, "130").getAmount()).isEqualByComparingTo("130");
+    }
+
+    @Test
+    void bidRefusedByAFullWriteBehindIsNotPublished() throws Exception {
+        doThrow(new IllegalStateException("Too many bids waiting to be saved, please retry"))
+                .when(bidWriteBehind).enqueue(any(AcceptedBid[].class));
+
+        assertThatThrownBy(() -> submit(2L, "120"))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        verify(bidBroadcaster, never()).publish(eq(ITEM_ID), anyLong(), anyLong(), any(), any(), anyInt(), any());
+
+        // The refused bid did not become the high bid, nor use up a number
+        doNothing().when(bidWriteBehind).enqueue(any(AcceptedBid[].class));
+        com.auction.model.Bid accepted = submit(3L, "110");
+        assertThat(accepted.getAmount()).isEqualByComparingTo("110");
+        assertThat(accepted.getItemBidId()).isEqualTo(6L);
+    }
+
+    @Test
+    void bidsAreNumberedOnFromTheItemOrItsLatestUnwrittenBid() throws Exception {
+        assertThat(submit(2L, "120").getItemBidId()).isEqualTo(6L);
+        assertThat(submit(3L, "130").getItemBidId()).isEqualTo(7L);
+
+        // Reloaded while bid 7 is still waiting to be written; the row still says 5
+        when(bidWriteBehind.unflushed(ITEM_ID)).thenReturn(
+                new AcceptedBid(ITEM_ID, 7L, 3L, "user3", new BigDecimal("130"), LocalDateTime.now()));
+        bidEngine.evict(ITEM_ID);
+        assertThat(submit(2L, "140").getItemBidId()).isEqualTo(8L);
+    }
+
+    @Test
+    void drainedItemRefusesBidsUntilEvicted() throws Exception {
+        when(bidWriteBehind.awaitFlushed(eq(ITEM_ID), anyLong())).thenReturn(true);
+        submit(2L, "120");
+
+        assertThat(bidEngine.drain(List.of(ITEM_ID), 1000)).containsExactly(ITEM_ID);
+        verify(bidWriteBehind).awaitFlushed(eq(ITEM_ID), anyLong());
+        assertThatThrownBy(() -> submit(3L, "130"))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        // E.g. the close found the auction extended and left it running
+        bidEngine.evict(ITEM_ID);
+        assertThat(submit(3L, "130").getAmount()).isEqualByComparingTo("130");
+    }
+
+    @Test
+    void itemWithBidsStillBeingWrittenIsNotDrained() throws Exception {
+        when(bidWriteBehind.awaitFlushed(eq(ITEM_ID), anyLong())).thenReturn(false);
+
+        assertThat(bidEngine.drain(List.of(ITEM_ID), 50)).isEmpty();
+    }
+
+    private com.auction.model.Bid submit(Long bidderId, String amount) throws Exception {
+        User bidder = new User();
+        bidder.setUserId(bidderId);
+        bidder.setUsername("user" + bidderId);
+        return bidEngine.submit(ITEM_ID, bidder, new BigDecimal(amount)).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,235 @@
+package com.auction.service;
+
+import com.auction.exception.ResourceNotFoundException;
+import com.auction.model.Bid;
+import com.auction.model.Item;
+import com.auction.model.ProxyBid;
+import com.auction.model.User;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.ProxyBidRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BidGroupCommitterTest {
+
+    private static final Long ITEM_ID = 7L;
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ProxyBidRepository proxyBidRepository = mock(ProxyBidRepository.class);
+    private final BidBroadcaster bidBroadcaster = mock(BidBroadcaster.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    // Every inserted bid row as (bidder, amount, item bid id), in insert order
+    private final List<Object[]> inserted = new ArrayList<>();
+    private final AtomicLong generatedIds = new AtomicLong(1000);
+    private BidGroupCommitter committer;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter setter = invocation.getArgument(1);
+                    KeyHolder keys = invocation.getArgument(2);
+                    for (int i = 0; i < setter.getBatchSize(); i++) {
+                        Map<Integer, Object> values = new HashMap<>();
+                        PreparedStatement ps = mock(PreparedStatement.class, parameter -> {
+                            values.put(parameter.getArgument(0), parameter.getArgument(1));
+                            return null;
+                        });
+                        setter.setValues(ps, i);
+                        inserted.add(new Object[] {values.get(2), values.get(3), values.get(5)});
+                        keys.getKeyList().add(Map.of("bid_id", generatedIds.incrementAndGet()));
+                    }
+                    return new int[setter.getBatchSize()];
+                });
+        // The item's bid sequence, raised by the update that accepts the bids
+        AtomicLong sequence = new AtomicLong();
+        when(itemRepository.applyAcceptedBids(eq(ITEM_ID), any(), anyLong(), anyInt())).thenAnswer(invocation ->
+                Optional.of(sequence.addAndGet(invocation.<Integer>getArgument(3))));
+
+        item = new Item();
+        item.setItemId(ITEM_ID);
+        item.setTitle("Clock");
+        item.setItemStatus(Item.ItemStatus.ACTIVE);
+        item.setStartingPrice(new BigDecimal("50"));
+        item.setEndDate(LocalDateTime.now().plusHours(1));
+        when(itemRepository.findByIdForUpdate(ITEM_ID)).thenAnswer(invocation -> Optional.of(item));
+        when(proxyBidRepository.findByItemIdWithBidder(ITEM_ID)).thenReturn(List.of());
+
+        ProxyBidResolver proxyBidResolver = new ProxyBidResolver();
+        ReflectionTestUtils.setField(proxyBidResolver, "increment", BigDecimal.ONE);
+        committer = new BidGroupCommitter(itemRepository, proxyBidRepository, proxyBidResolver, bidBroadcaster,
+                jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(committer, "windowMs", 200L);
+        ReflectionTestUtils.setField(committer, "threadCount", 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        committer.stop();
+    }
+
+    @Test
+    void batchIsAcceptedInArrivalOrderAndRejectsOnlyTheBidsThatFail() throws Exception {
+        start(4);
+
+        CompletableFuture<Bid> first = committer.submit(ITEM_ID, user(1L), new BigDecimal("100"));
+        CompletableFuture<Bid> second = committer.submit(ITEM_ID, user(2L), new BigDecimal("110"));
+        // Valid against the item as read, but not once the bid before it is accepted
+        CompletableFuture<Bid> tooLow = committer.submit(ITEM_ID, user(3L), new BigDecimal("105"));
+        CompletableFuture<Bid> third = committer.submit(ITEM_ID, user(3L), new BigDecimal("120"));
+
+        assertThat(result(first).getItemBidId()).isEqualTo(1L);
+        assertThat(result(second).getItemBidId()).isEqualTo(2L);
+        assertThat(failure(tooLow)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(result(third).getItemBidId()).isEqualTo(3L);
+        assertThat(result(third).getBidId()).isEqualTo(1003L);
+
+        assertInserted(row(1L, "100", 1L), row(2L, "110", 2L), row(3L, "120", 3L));
+        verify(itemRepository).applyAcceptedBids(ITEM_ID, new BigDecimal("120"), 3L, 3);
+        // One frame for the whole batch, carrying its final state
+        verify(bidBroadcaster).publish(eq(ITEM_ID), eq(3L), eq(3L), eq("user3"), eq(new BigDecimal("120")),
+                eq(3), any(Long[].class));
+    }
+
+    @Test
+    void proxyResponseIsNumberedRightAfterTheBidItAnswers() throws Exception {
+        when(proxyBidRepository.findByItemIdWithBidder(ITEM_ID)).thenReturn(List.of(proxy(9L, "200")));
+        start(3);
+
+        CompletableFuture<Bid> first = committer.submit(ITEM_ID, user(1L), new BigDecimal("100"));
+        // The proxy already answered with 101
+        CompletableFuture<Bid> matched = committer.submit(ITEM_ID, user(2L), new BigDecimal("101"));
+        CompletableFuture<Bid> second = committer.submit(ITEM_ID, user(2L), new BigDecimal("150"));
+
+        assertThat(result(first).getItemBidId()).isEqualTo(1L);
+        assertThat(failure(matched)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(result(second).getItemBidId()).isEqualTo(3L);
+
+        assertInserted(row(1L, "100", 1L), row(9L, "101", 2L), row(2L, "150", 3L), row(9L, "151", 4L));
+        verify(itemRepository).applyAcceptedBids(ITEM_ID, new BigDecimal("151"), 9L, 4);
+    }
+
+    @Test
+    void windowsOfOneItemAreCommittedInTheOrderTheyFilled() throws Exception {
+        // Every bid fills a window of its own
+        start(1);
+
+        List<CompletableFuture<Bid>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(committer.submit(ITEM_ID, user(1L + i), new BigDecimal(100 + i)));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(result(results.get(i)).getItemBidId()).isEqualTo(i + 1L);
+        }
+        assertInserted(row(1L, "100", 1L), row(2L, "101", 2L), row(3L, "102", 3L),
+                row(4L, "103", 4L), row(5L, "104", 5L));
+    }
+
+    @Test
+    void batchWithoutAcceptedBidsWritesAndPublishesNothing() throws Exception {
+        item.setItemStatus(Item.ItemStatus.SOLD);
+        start(2);
+
+        CompletableFuture<Bid> first = committer.submit(ITEM_ID, user(1L), new BigDecimal("100"));
+        CompletableFuture<Bid> second = committer.submit(ITEM_ID, user(2L), new BigDecimal("110"));
+
+        assertThat(failure(first)).isInstanceOf(IllegalStateException.class);
+        assertThat(failure(second)).isInstanceOf(IllegalStateException.class);
+        assertThat(inserted).isEmpty();
+        verify(itemRepository, never()).applyAcceptedBids(anyLong(), any(), anyLong(), anyInt());
+        verify(bidBroadcaster, never()).publish(anyLong(), anyLong(), anyLong(), any(), any(), anyInt(),
+                any(Long[].class));
+    }
+
+    @Test
+    void failedTransactionFailsEveryBidOfTheBatch() throws Exception {
+        when(itemRepository.findByIdForUpdate(ITEM_ID)).thenReturn(Optional.empty());
+        start(2);
+
+        CompletableFuture<Bid> first = committer.submit(ITEM_ID, user(1L), new BigDecimal("100"));
+        CompletableFuture<Bid> second = committer.submit(ITEM_ID, user(2L), new BigDecimal("110"));
+
+        assertThat(failure(first)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(failure(second)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(inserted).isEmpty();
+    }
+
+    private void start(int maxBatch) {
+        ReflectionTestUtils.setField(committer, "maxBatch", maxBatch);
+        committer.start();
+    }
+
+    private void assertInserted(Object[]... rows) {
+        assertThat(inserted).containsExactly(rows);
+    }
+
+    private static Object[] row(Long bidderId, String amount, Long itemBidId) {
+        return new Object[] {bidderId, new BigDecimal(amount), itemBidId};
+    }
+
+    private static Bid result(CompletableFuture<Bid> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    private static Throwable failure(CompletableFuture<Bid> future) throws InterruptedException, TimeoutException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("Bid was accepted");
+    }
+
+    private static User user(Long userId) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUsername("user" + userId);
+        return user;
+    }
+
+    private static ProxyBid proxy(Long bidderId, String maxAmount) {
+        ProxyBid proxyBid = new ProxyBid();
+        proxyBid.setBidder(user(bidderId));
+        proxyBid.setMaxAmount(new BigDecimal(maxAmount));
+        proxyBid.setPlacedAt(LocalDateTime.now().minus(Duration.ofMinutes(1)));
+        return proxyBid;
+    }
+}
@@ -0,0 +1,126 @@
+package com.auction.service;
+
+import com.auction.model.AcceptedBid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BidJournalTest {
+
+    private static final int CAPACITY = 4;
+
+    @TempDir
+    Path directory;
+
+    private final List<BidJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (BidJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void unflushedBidsAreReplayedInJournalOrder() throws IOException {
+        BidJournal journal = journal();
+        assertThat(journal.open()).isEmpty();
+        AcceptedBid first = bid(1L, 1L, "120.50");
+        AcceptedBid second = bid(2L, 1L, "99");
+        AcceptedBid third = bid(1L, 2L, "130.00");
+        journal.append(first, second);
+        journal.append(third);
+        journal.release(1);
+        journal.close();
+
+        List<BidJournal.Recovered> recovered = journal().open();
+
+        assertThat(recovered).extracting(BidJournal.Recovered::sequence).containsExactly(2L, 3L);
+        assertSameBid(recovered.get(0).bid(), second);
+        assertSameBid(recovered.get(1).bid(), third);
+    }
+
+    @Test
+    void slotsAreReusedAfterTheRingWrapsAround() throws IOException {
+        BidJournal journal = journal();
+        journal.open();
+        for (int i = 1; i <= 3; i++) {
+            journal.append(bid(1L, (long) i, String.valueOf(100 + i)));
+        }
+        journal.release(3);
+        // Sequences 4 to 6 take the last slot and then the first two again
+        for (int i = 4; i <= 6; i++) {
+            journal.append(bid(1L, (long) i, String.valueOf(100 + i)));
+        }
+        journal.release(1);
+        journal.close();
+
+        List<BidJournal.Recovered> recovered = journal().open();
+
+        assertThat(recovered).extracting(BidJournal.Recovered::sequence).containsExactly(5L, 6L);
+        assertThat(recovered).extracting(entry -> entry.bid().getItemBidId()).containsExactly(5L, 6L);
+    }
+
+    @Test
+    void appendIsRefusedWhileTheRingIsFullOfUnflushedBids() {
+        BidJournal journal = journal();
+        journal.open();
+        journal.append(bid(1L, 1L, "101"), bid(1L, 2L, "102"), bid(1L, 3L, "103"));
+
+        assertThatThrownBy(() -> journal.append(bid(1L, 4L, "104"), bid(1L, 5L, "105")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(journal.unflushed()).isEqualTo(3);
+
+        journal.release(1);
+        journal.append(bid(1L, 4L, "104"), bid(1L, 5L, "105"));
+        assertThat(journal.unflushed()).isEqualTo(4);
+    }
+
+    @Test
+    void anyAmountThatPassesValidationFitsTheRecord() throws IOException {
+        BidJournal journal = journal();
+        journal.open();
+        AcceptedBid largest = bid(1L, 1L, BidService.MAX_BID_AMOUNT.toPlainString());
+        AcceptedBid longScale = bid(1L, 2L, "120.5000000000000000000000000");
+        journal.append(largest, longScale);
+        journal.close();
+
+        List<BidJournal.Recovered> recovered = journal().open();
+
+        assertThat(recovered.get(0).bid().getAmount()).isEqualByComparingTo(BidService.MAX_BID_AMOUNT);
+        assertThat(recovered.get(1).bid().getAmount()).isEqualByComparingTo("120.5");
+    }
+
+    private BidJournal journal() {
+        BidJournal journal = new BidJournal();
+        ReflectionTestUtils.setField(journal, "path", directory.resolve("bids.journal").toString());
+        ReflectionTestUtils.setField(journal, "capacity", CAPACITY);
+        opened.add(journal);
+        return journal;
+    }
+
+    private static AcceptedBid bid(Long itemId, Long itemBidId, String amount) {
+        return new AcceptedBid(itemId, itemBidId, 7L, "bidder", new BigDecimal(amount),
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    private static void assertSameBid(AcceptedBid actual, AcceptedBid expected) {
+        assertThat(actual.getItemId()).isEqualTo(expected.getItemId());
+        assertThat(actual.getItemBidId()).isEqualTo(expected.getItemBidId());
+        assertThat(actual.getBidderId()).isEqualTo(expected.getBidderId());
+        assertThat(actual.getAmount()).isEqualByComparingTo(expected.getAmount());
+        assertThat(actual.getBidTime()).isEqualTo(expected.getBidTime());
+    }
+}
@@ -0,0 +1,113 @@
+package com.auction.service;
+
+import com.auction.model.BidMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class BidNotifyListenerTest {
+
+    private static final Long ITEM_ID = 7L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BidBroadcaster bidBroadcaster = mock(BidBroadcaster.class);
+    // itemBidIds of the frames relayed to this node's subscribers, in order
+    private final List<Long> relayed = new ArrayList<>();
+    private BidNotifyListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doAnswer(invocation -> relayed.add(invocation.<BidMessage>getArgument(0).getItemBidId()))
+                .when(bidBroadcaster).deliver(any());
+        BidNotifyPublisher self = new BidNotifyPublisher(new RecordingJdbcTemplate(), objectMapper);
+        ReflectionTestUtils.setField(self, "nodeId", "self");
+        self.start();
+        listener = new BidNotifyListener(mock(DataSource.class), objectMapper, self, bidBroadcaster);
+    }
+
+    @Test
+    void framesOfOneItemFromDifferentNodesAreAllRelayed() throws Exception {
+        // Each node's frame was numbered 5 by that node, and b's 4 arrives after a's 5
+        List<String> fromA = payloads("a", frame(5));
+        List<String> fromB = payloads("b", frame(5), frame(4));
+
+        fromA.forEach(listener::handle);
+        fromB.forEach(listener::handle);
+
+        assertThat(relayed).containsExactly(5L, 5L, 4L);
+    }
+
+    @Test
+    void repeatedPayloadIsRelayedOnce() throws Exception {
+        List<String> fromA = payloads("a", frame(1), frame(2));
+
+        fromA.forEach(listener::handle);
+        fromA.forEach(listener::handle);
+
+        assertThat(relayed).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void restartedNodeIsRelayedAgain() throws Exception {
+        payloads("a", frame(1), frame(2)).forEach(listener::handle);
+        // Same node id, numbered from the start again after a restart
+        payloads("a", frame(3)).forEach(listener::handle);
+
+        assertThat(relayed).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void ownPayloadsAreIgnored() throws Exception {
+        payloads("self", frame(1)).forEach(listener::handle);
+
+        assertThat(relayed).isEmpty();
+    }
+
+    /**
+     * The notifications one run of a node sends for the frames, published in order.
+     */
+    private List<String> payloads(String nodeId, BidMessage... frames) throws Exception {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+        BidNotifyPublisher publisher = new BidNotifyPublisher(jdbcTemplate, objectMapper);
+        ReflectionTestUtils.setField(publisher, "enabled", true);
+        ReflectionTestUtils.setField(publisher, "nodeId", nodeId);
+        // Only the flush on stop sends, so every frame goes in one notification
+        ReflectionTestUtils.setField(publisher, "batchMs", 3_600_000L);
+        publisher.start();
+        for (BidMessage frame : frames) {
+            publisher.publish(frame);
+        }
+        publisher.stop();
+        return jdbcTemplate.payloads;
+    }
+
+    private static BidMessage frame(long itemBidId) {
+        BidMessage frame = new BidMessage();
+        frame.setItemId(ITEM_ID);
+        frame.setItemBidId(itemBidId);
+        frame.setBidCountDelta(1);
+        frame.setAmount(100.0 + itemBidId);
+        return frame;
+    }
+
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<String> payloads = new ArrayList<>();
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            payloads.add((String) args[1]);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.auction.service;
+
+import com.auction.model.Item;
+import com.auction.model.User;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Bid frames against the database, in TRANSACTIONAL mode: only a committed bid is sent.
+ */
+@SpringBootTest(properties = "bid.acceptance.mode=TRANSACTIONAL")
+class BidPublishAfterCommitTest {
+
+    @Autowired
+    private BidService bidService;
+
+    @Autowired
+    private BidReplayBuffer bidReplayBuffer;
+
+    @MockitoSpyBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User bidder;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        String name = "publish-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("x");
+        user.setRole(User.UserRole.USER);
+        user.setUserStatus(User.UserStatus.ACTIVE);
+        bidder = userRepository.save(user);
+
+        Item newItem = new Item();
+        newItem.setTitle("Publish test item");
+        newItem.setStartingPrice(new BigDecimal("10.00"));
+        newItem.setItemStatus(Item.ItemStatus.ACTIVE);
+        newItem.setEndDate(LocalDateTime.now().plusHours(1));
+        item = itemRepository.save(newItem);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM bids WHERE item_id = ?", item.getItemId());
+        jdbcTemplate.update("DELETE FROM items WHERE item_id = ?", item.getItemId());
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", bidder.getUserId());
+    }
+
+    @Test
+    void bidThatRollsBackIsNeitherRecordedNorSent() {
+        // The bid joins this transaction, which then rolls back
+        transactionTemplate.executeWithoutResult(status -> {
+            bidService.placeBid(item.getItemId(), bidder.getUserId(), new BigDecimal("20.00"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(bidCount()).isZero();
+        assertThat(bidReplayBuffer.since(item.getItemId(), 0)).isNull();
+        verify(messagingTemplate, never()).send(eq("/topic/bid/" + item.getItemId()), any(Message.class));
+    }
+
+    @Test
+    void committedBidIsSentAfterTheCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bidService.placeBid(item.getItemId(), bidder.getUserId(), new BigDecimal("20.00"));
+            // Still inside the transaction that accepted it
+            assertThat(bidReplayBuffer.since(item.getItemId(), 0)).isNull();
+        });
+
+        assertThat(bidCount()).isEqualTo(1);
+        assertThat(bidReplayBuffer.since(item.getItemId(), 0)).hasSize(1);
+        verify(messagingTemplate).send(eq("/topic/bid/" + item.getItemId()), any(Message.class));
+    }
+
+    private int bidCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bids WHERE item_id = ?", Integer.class, item.getItemId());
+    }
+}
@@ -0,0 +1,94 @@
+package com.auction.service;
+
+import com.auction.model.BidMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BidReplayBufferTest {
+
+    private static final Long ITEM_ID = 7L;
+
+    @Test
+    void returnsOnlyTheFramesAfterTheSequence() {
+        BidReplayBuffer buffer = new BidReplayBuffer(8, 10);
+        for (long i = 1; i <= 5; i++) {
+            buffer.record(frame(ITEM_ID, i, 1));
+        }
+
+        assertThat(sequences(buffer.since(ITEM_ID, 2))).containsExactly(3L, 4L, 5L);
+        assertThat(buffer.since(ITEM_ID, 5)).isEmpty();
+        assertThat(sequences(buffer.since(ITEM_ID, 0))).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void unknownItemNeedsASnapshot() {
+        BidReplayBuffer buffer = new BidReplayBuffer(8, 10);
+
+        assertThat(buffer.since(ITEM_ID, 0)).isNull();
+    }
+
+    @Test
+    void framesBeforeTheFirstBufferedOneNeedASnapshot() {
+        // Buffering started at 11, e.g. after a restart
+        BidReplayBuffer buffer = new BidReplayBuffer(8, 10);
+        buffer.record(frame(ITEM_ID, 11, 1));
+        buffer.record(frame(ITEM_ID, 12, 1));
+
+        assertThat(sequences(buffer.since(ITEM_ID, 10))).containsExactly(11L, 12L);
+        assertThat(buffer.since(ITEM_ID, 9)).isNull();
+    }
+
+    @Test
+    void conflatedFrameCoversTheNumbersItReplaced() {
+        BidReplayBuffer buffer = new BidReplayBuffer(8, 10);
+        // Bids 1 to 3 went out as one frame
+        buffer.record(frame(ITEM_ID, 3, 3));
+        buffer.record(frame(ITEM_ID, 4, 1));
+
+        assertThat(sequences(buffer.since(ITEM_ID, 0))).containsExactly(3L, 4L);
+        assertThat(sequences(buffer.since(ITEM_ID, 1))).containsExactly(3L, 4L);
+        assertThat(buffer.since(ITEM_ID, -1)).isNull();
+    }
+
+    @Test
+    void wrappedRingKeepsTheNewestFramesAndForgetsTheOldest() {
+        BidReplayBuffer buffer = new BidReplayBuffer(3, 10);
+        for (long i = 1; i <= 7; i++) {
+            buffer.record(frame(ITEM_ID, i, 1));
+        }
+
+        assertThat(sequences(buffer.since(ITEM_ID, 4))).containsExactly(5L, 6L, 7L);
+        assertThat(sequences(buffer.since(ITEM_ID, 5))).containsExactly(6L, 7L);
+        assertThat(buffer.since(ITEM_ID, 3)).isNull();
+    }
+
+    @Test
+    void leastRecentlyActiveItemIsDroppedBeyondMaxItems() {
+        BidReplayBuffer buffer = new BidReplayBuffer(8, 2);
+        buffer.record(frame(1L, 1, 1));
+        buffer.record(frame(2L, 1, 1));
+        // Item 1 is used again, so item 2 is the one dropped
+        buffer.record(frame(1L, 2, 1));
+        buffer.record(frame(3L, 1, 1));
+
+        assertThat(sequences(buffer.since(1L, 0))).containsExactly(1L, 2L);
+        assertThat(buffer.since(2L, 0)).isNull();
+        assertThat(sequences(buffer.since(3L, 0))).containsExactly(1L);
+    }
+
+    private static BidMessage frame(Long itemId, long itemBidId, int bidCountDelta) {
+        BidMessage frame = new BidMessage();
+        frame.setItemId(itemId);
+        frame.setItemBidId(itemBidId);
+        frame.setBidCountDelta(bidCountDelta);
+        return frame;
+    }
+
+    private static List<Long> sequences(List<BidMessage> frames) {
+        assertThat(frames).isNotNull();
+        return frames.stream().map(BidMessage::getItemBidId).toList();
+    }
+}
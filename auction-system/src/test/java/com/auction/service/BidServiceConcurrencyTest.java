@@ -0,0 +1,133 @@
+package com.auction.service;
+
+import com.auction.model.Item;
+import com.auction.model.User;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent bids on one item against the database, in TRANSACTIONAL mode.
+ */
+@SpringBootTest(properties = "bid.acceptance.mode=TRANSACTIONAL")
+class BidServiceConcurrencyTest {
+
+    private static final int BIDDERS = 8;
+    private static final int BIDS_PER_BIDDER = 25;
+
+    @Autowired
+    private BidService bidService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> bidders = new ArrayList<>();
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < BIDDERS; i++) {
+            String name = "bidder-" + UUID.randomUUID();
+            User user = new User();
+            user.setUsername(name);
+            user.setEmail(name + "@example.com");
+            user.setPasswordHash("x");
+            user.setRole(User.UserRole.USER);
+            user.setUserStatus(User.UserStatus.ACTIVE);
+            bidders.add(userRepository.save(user));
+        }
+        Item newItem = new Item();
+        newItem.setTitle("Concurrency test item");
+        newItem.setStartingPrice(new BigDecimal("10.00"));
+        newItem.setItemStatus(Item.ItemStatus.ACTIVE);
+        newItem.setEndDate(LocalDateTime.now().plusHours(1));
+        item = itemRepository.save(newItem);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM bids WHERE item_id = ?", item.getItemId());
+        jdbcTemplate.update("DELETE FROM items WHERE item_id = ?", item.getItemId());
+        for (User bidder : bidders) {
+            jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", bidder.getUserId());
+        }
+    }
+
+    @Test
+    void concurrentBidsAreAcceptedInIncreasingOrderAndTheHighestOneLeads() throws InterruptedException {
+        Map<BigDecimal, Long> accepted = new ConcurrentHashMap<>();
+        List<Throwable> unexpected = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(BIDDERS);
+        for (User bidder : bidders) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < BIDS_PER_BIDDER; i++) {
+                        // Whole distinct amounts, so every accepted bid is identified by its amount
+                        BigDecimal amount = BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(11, 100_000))
+                                .setScale(2);
+                        try {
+                            bidService.placeBid(item.getItemId(), bidder.getUserId(), amount);
+                            accepted.put(amount, bidder.getUserId());
+                        } catch (IllegalArgumentException | IllegalStateException rejected) {
+                            // Not above the current high bid
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (unexpected) {
+                        unexpected.add(e);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        assertThat(unexpected).isEmpty();
+
+        // In sequence order every stored bid beats the one before it
+        List<BigDecimal> stored = jdbcTemplate.queryForList(
+                "SELECT bid_amount FROM bids WHERE item_id = ? ORDER BY item_bid_id", BigDecimal.class, item.getItemId());
+        assertThat(stored).hasSize(accepted.size()).isSorted().doesNotHaveDuplicates();
+        // Rejected bids took no number, so the committed ones count up without gaps
+        List<Long> numbers = jdbcTemplate.queryForList(
+                "SELECT item_bid_id FROM bids WHERE item_id = ? ORDER BY item_bid_id", Long.class, item.getItemId());
+        assertThat(numbers).containsExactlyElementsOf(
+                LongStream.rangeClosed(1, accepted.size()).boxed().toList());
+
+        BigDecimal highest = accepted.keySet().stream().max(BigDecimal::compareTo).orElseThrow();
+        Item reloaded = itemRepository.findById(item.getItemId()).orElseThrow();
+        assertThat(reloaded.getCurrentHighestBid()).isEqualByComparingTo(highest);
+        assertThat(reloaded.getLeadingBidderId()).isEqualTo(accepted.get(highest));
+        assertThat(reloaded.getBidCount()).isEqualTo(accepted.size());
+        assertThat(reloaded.getLastItemBidId()).isEqualTo(accepted.size());
+    }
+}
@@ -0,0 +1,56 @@
+package com.auction.service;
+
+import com.auction.model.Item;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BidValidationTest {
+
+    private static final BigDecimal STARTING_PRICE = new BigDecimal("10.00");
+
+    @Test
+    void acceptsABidAboveTheHighBid() {
+        assertThatCode(() -> validate(new BigDecimal("100"), "100.01")).doesNotThrowAnyException();
+        assertThatCode(() -> validate(null, "10.500")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectsBidsNotAboveTheHighBidOrBelowTheStartingPrice() {
+        assertThatThrownBy(() -> validate(new BigDecimal("100"), "100.00"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validate(null, "9.99"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsAmountsThatCannotBeStored() {
+        assertThatThrownBy(() -> validate(null, "10.001"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("two decimal places");
+        assertThatThrownBy(() -> validate(null, "1000000000000"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validate(null, "92233720368547758.08"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatCode(() -> validate(null, BidService.MAX_BID_AMOUNT.toPlainString())).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectsBidsOnInactiveOrEndedAuctions() {
+        assertThatThrownBy(() -> BidService.validateBid(Item.ItemStatus.SOLD, LocalDateTime.now().plusHours(1),
+                STARTING_PRICE, null, new BigDecimal("20")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> BidService.validateBid(Item.ItemStatus.ACTIVE, LocalDateTime.now().minusSeconds(1),
+                STARTING_PRICE, null, new BigDecimal("20")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void validate(BigDecimal highestBid, String amount) {
+        BidService.validateBid(Item.ItemStatus.ACTIVE, LocalDateTime.now().plusHours(1), STARTING_PRICE,
+                highestBid, new BigDecimal(amount));
+    }
+}
@@ -0,0 +1,148 @@
+package com.auction.service;
+
+import com.auction.model.AcceptedBid;
+import com.auction.model.Bid;
+import com.auction.repository.BidRepository;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BidWriteBehindTest {
+
+    private final BidRepository bidRepository = mock(BidRepository.class);
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private BidWriteBehind bidWriteBehind;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(itemRepository.applyNumberedBids(anyLong(), any(), anyLong(), anyInt(), anyLong())).thenReturn(1);
+
+        bidWriteBehind = new BidWriteBehind(bidRepository, itemRepository, mock(UserRepository.class),
+                transactionTemplate, mock(BidJournal.class));
+        ReflectionTestUtils.setField(bidWriteBehind, "batchSize", 10);
+        ReflectionTestUtils.setField(bidWriteBehind, "maxRetries", 2);
+        ReflectionTestUtils.setField(bidWriteBehind, "queueCapacity", 3);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bidWriteBehind.stop();
+    }
+
+    @Test
+    void failedBatchIsRetriedUntilWrittenInsteadOfDropped() throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger(3);
+        when(bidRepository.saveAll(any())).thenAnswer(invocation -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            return invocation.getArgument(0);
+        });
+        bidWriteBehind.start();
+
+        AcceptedBid bid = bid(1L, 1L, "120");
+        bidWriteBehind.enqueue(bid);
+        assertThat(bidWriteBehind.unflushed(1L)).isSameAs(bid);
+
+        assertThat(bidWriteBehind.awaitFlushed(1L, 5000)).isTrue();
+        verify(bidRepository, times(4)).saveAll(any());
+        verify(itemRepository).applyNumberedBids(eq(1L), eq(new BigDecimal("120")), eq(2L), eq(1), eq(1L));
+        assertThat(bidWriteBehind.unflushed(1L)).isNull();
+    }
+
+    @Test
+    void fullQueueRefusesBidsUntilABatchIsWritten() throws InterruptedException {
+        CountDownLatch database = new CountDownLatch(1);
+        when(bidRepository.saveAll(any())).thenAnswer(invocation -> {
+            database.await();
+            return invocation.getArgument(0);
+        });
+        bidWriteBehind.start();
+
+        bidWriteBehind.enqueue(bid(1L, 1L, "110"), bid(1L, 2L, "120"));
+        bidWriteBehind.enqueue(bid(2L, 1L, "50"));
+        assertThatThrownBy(() -> bidWriteBehind.enqueue(bid(1L, 3L, "130")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(bidWriteBehind.unflushed(1L).getAmount()).isEqualByComparingTo("120");
+
+        database.countDown();
+        assertThat(bidWriteBehind.awaitFlushed(1L, 5000)).isTrue();
+        assertThat(bidWriteBehind.awaitFlushed(2L, 5000)).isTrue();
+        bidWriteBehind.enqueue(bid(1L, 3L, "130"));
+    }
+
+    @Test
+    void rejectedBidIsDroppedWithoutHoldingUpTheOthers() throws InterruptedException {
+        // Amounts of the bids saved, one list per saveAll call that went through
+        List<List<BigDecimal>> saved = new ArrayList<>();
+        when(bidRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<BigDecimal> amounts = new ArrayList<>();
+            invocation.<Iterable<Bid>>getArgument(0).forEach(bid -> amounts.add(bid.getAmount()));
+            // The item of the 999 bid was deleted meanwhile
+            if (amounts.contains(new BigDecimal("999"))) {
+                throw new DataIntegrityViolationException("violates foreign key constraint");
+            }
+            saved.add(amounts);
+            return invocation.getArgument(0);
+        });
+        CountDownLatch database = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            database.await();
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        bidWriteBehind.start();
+
+        bidWriteBehind.enqueue(bid(1L, 1L, "100"));
+        bidWriteBehind.enqueue(bid(9L, 1L, "999"));
+        bidWriteBehind.enqueue(bid(2L, 1L, "50"));
+        database.countDown();
+
+        assertThat(bidWriteBehind.awaitFlushed(9L, 5000)).isTrue();
+        assertThat(bidWriteBehind.awaitFlushed(2L, 5000)).isTrue();
+        // Tried once as a batch, without retries, then one bid at a time
+        verify(bidRepository, times(4)).saveAll(any());
+        assertThat(saved).containsExactly(List.of(new BigDecimal("100")), List.of(new BigDecimal("50")));
+
+        // The queue keeps moving
+        bidWriteBehind.enqueue(bid(1L, 2L, "110"));
+        assertThat(bidWriteBehind.awaitFlushed(1L, 5000)).isTrue();
+        assertThat(saved).hasSize(3);
+    }
+
+    private static AcceptedBid bid(Long itemId, Long itemBidId, String amount) {
+        return new AcceptedBid(itemId, itemBidId, 2L, "user2", new BigDecimal(amount), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,107 @@
+package com.auction.service;
+
+import com.auction.model.Item;
+import com.auction.model.ProxyBid;
+import com.auction.model.User;
+import com.auction.repository.ItemRepository;
+import com.auction.repository.ProxyBidRepository;
+import com.auction.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Proxy bids against the database: they go with a deleted item and are cleared at settlement.
+ */
+@SpringBootTest(properties = "bid.acceptance.mode=TRANSACTIONAL")
+class ProxyBidCleanupTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private AuctionResultService auctionResultService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ProxyBidRepository proxyBidRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User bidder;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        String name = "proxy-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("x");
+        user.setRole(User.UserRole.USER);
+        user.setUserStatus(User.UserStatus.ACTIVE);
+        bidder = userRepository.save(user);
+
+        Item newItem = new Item();
+        newItem.setTitle("Proxy bid test item");
+        newItem.setStartingPrice(new BigDecimal("10.00"));
+        newItem.setItemStatus(Item.ItemStatus.ACTIVE);
+        newItem.setEndDate(LocalDateTime.now().plusHours(1));
+        item = itemRepository.save(newItem);
+
+        ProxyBid proxyBid = new ProxyBid();
+        proxyBid.setItem(item);
+        proxyBid.setBidder(bidder);
+        proxyBid.setMaxAmount(new BigDecimal("50.00"));
+        proxyBid.setPlacedAt(LocalDateTime.now());
+        proxyBidRepository.save(proxyBid);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM proxy_bids WHERE item_id = ?", item.getItemId());
+        jdbcTemplate.update("DELETE FROM auction_results WHERE item_id = ?", item.getItemId());
+        jdbcTemplate.update("DELETE FROM items WHERE item_id = ?", item.getItemId());
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", bidder.getUserId());
+    }
+
+    @Test
+    void deletingAnItemDeletesItsProxyBids() {
+        itemService.deleteItem(item.getItemId());
+
+        assertThat(itemRepository.existsById(item.getItemId())).isFalse();
+        assertThat(proxyBidCount()).isZero();
+    }
+
+    @Test
+    void settlingAnAuctionClearsItsProxyBids() {
+        jdbcTemplate.update("UPDATE items SET end_date = ? WHERE item_id = ?",
+                LocalDateTime.now().minusMinutes(1), item.getItemId());
+
+        List<Long> settled = auctionResultService.settleExpired(List.of(item.getItemId()));
+
+        assertThat(settled).containsExactly(item.getItemId());
+        assertThat(proxyBidCount()).isZero();
+    }
+
+    private int proxyBidCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM proxy_bids WHERE item_id = ?", Integer.class, item.getItemId());
+    }
+}
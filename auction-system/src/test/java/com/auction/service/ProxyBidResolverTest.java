@@ -0,0 +1,112 @@
+package com.auction.service;
+
+import com.auction.service.ProxyBidResolver.Proxy;
+import com.auction.service.ProxyBidResolver.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProxyBidResolverTest {
+
+    private static final BigDecimal STARTING_PRICE = new BigDecimal("10.00");
+    private static final LocalDateTime EARLIER = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private static final LocalDateTime LATER = EARLIER.plusMinutes(5);
+
+    private ProxyBidResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new ProxyBidResolver();
+        ReflectionTestUtils.setField(resolver, "increment", new BigDecimal("1.00"));
+    }
+
+    @Test
+    void noProxiesMeansNoResponse() {
+        assertThat(resolver.resolve(STARTING_PRICE, new BigDecimal("50"), 1L, List.of())).isNull();
+        assertThat(resolver.resolve(STARTING_PRICE, null, null, List.of())).isNull();
+    }
+
+    @Test
+    void proxyAnswersABidOneIncrementAbove() {
+        Response response = resolver.resolve(STARTING_PRICE, new BigDecimal("50"), 1L,
+                List.of(proxy(2L, "100", EARLIER)));
+
+        assertResponse(response, 2L, "51.00");
+    }
+
+    @Test
+    void proxyStopsAtItsMaximum() {
+        Response response = resolver.resolve(STARTING_PRICE, new BigDecimal("99.50"), 1L,
+                List.of(proxy(2L, "100", EARLIER)));
+
+        assertResponse(response, 2L, "100");
+    }
+
+    @Test
+    void bidMatchingTheMaximumKeepsTheLead() {
+        // The visible bid wins a tie with a proxy
+        assertThat(resolver.resolve(STARTING_PRICE, new BigDecimal("100"), 1L,
+                List.of(proxy(2L, "100", EARLIER)))).isNull();
+    }
+
+    @Test
+    void leaderProxyIsNotAskedToOutbidItself() {
+        assertThat(resolver.resolve(STARTING_PRICE, new BigDecimal("50"), 2L,
+                List.of(proxy(2L, "100", EARLIER)))).isNull();
+    }
+
+    @Test
+    void strongestChallengerBidsJustAboveTheRunnerUp() {
+        Response response = resolver.resolve(STARTING_PRICE, new BigDecimal("50"), 3L,
+                List.of(proxy(1L, "200", EARLIER), proxy(2L, "300", LATER)));
+
+        assertResponse(response, 2L, "201.00");
+    }
+
+    @Test
+    void leadingProxyDefendsAgainstANewProxyAndKeepsTheLeadOnATie() {
+        Response defended = resolver.resolve(STARTING_PRICE, new BigDecimal("50"), 1L,
+                List.of(proxy(1L, "150", EARLIER), proxy(2L, "120", LATER)));
+        assertResponse(defended, 1L, "121.00");
+
+        Response tied = resolver.resolve(STARTING_PRICE, new BigDecimal("50"), 1L,
+                List.of(proxy(1L, "120", EARLIER), proxy(2L, "120", LATER)));
+        assertResponse(tied, 1L, "120");
+    }
+
+    @Test
+    void firstProxyOpensAtTheStartingPrice() {
+        Response response = resolver.resolve(STARTING_PRICE, null, null, List.of(proxy(1L, "80", EARLIER)));
+
+        assertResponse(response, 1L, "10.00");
+    }
+
+    @Test
+    void earlierProxyWinsATieWhenOpening() {
+        Response response = resolver.resolve(STARTING_PRICE, null, null,
+                List.of(proxy(2L, "80", LATER), proxy(1L, "80", EARLIER)));
+
+        assertResponse(response, 1L, "80");
+    }
+
+    @Test
+    void proxyBelowTheStartingPriceCannotOpen() {
+        assertThat(resolver.resolve(STARTING_PRICE, null, null, List.of(proxy(1L, "9.99", EARLIER)))).isNull();
+    }
+
+    private static Proxy proxy(Long bidderId, String maxAmount, LocalDateTime placedAt) {
+        return new Proxy(bidderId, "bidder" + bidderId, new BigDecimal(maxAmount), placedAt);
+    }
+
+    private static void assertResponse(Response response, Long bidderId, String amount) {
+        assertThat(response).isNotNull();
+        assertThat(response.bidderId()).isEqualTo(bidderId);
+        assertThat(response.amount()).isEqualByComparingTo(amount);
+    }
+}
@@ -0,0 +1,84 @@
+package com.auction.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    private static final long TICK = 100;
+    private static final long START = 1_000_000;
+
+    @Test
+    void keyFallsDueOnTheFirstTickAtOrAfterItsDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, START);
+        wheel.schedule(1L, START + 250);
+
+        assertThat(wheel.advance(START + 200)).isEmpty();
+        assertThat(wheel.advance(START + 299)).isEmpty();
+        assertThat(wheel.advance(START + 300)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void passedDeadlineFallsDueOnTheNextTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, START);
+        wheel.schedule(1L, START - 5_000);
+
+        assertThat(wheel.advance(START + 99)).isEmpty();
+        assertThat(wheel.advance(START + 100)).containsExactly(1L);
+    }
+
+    @Test
+    void deadlineBeyondOneRevolutionWaitsForItsRound() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, START);
+        // Same slot as START + 300, one revolution later
+        wheel.schedule(1L, START + 300 + 8 * TICK);
+
+        assertThat(wheel.advance(START + 300)).isEmpty();
+        assertThat(wheel.advance(START + 800)).isEmpty();
+        assertThat(wheel.advance(START + 1_100)).containsExactly(1L);
+    }
+
+    @Test
+    void reschedulingReplacesTheDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, START);
+        wheel.schedule(1L, START + 200);
+        wheel.schedule(1L, START + 500);
+
+        assertThat(wheel.advance(START + 400)).isEmpty();
+        assertThat(wheel.advance(START + 500)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledKeyNeverFallsDue() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, START);
+        wheel.schedule(1L, START + 200);
+
+        assertThat(wheel.cancel(1L)).isTrue();
+        assertThat(wheel.cancel(1L)).isFalse();
+        assertThat(wheel.advance(START + 1_000)).isEmpty();
+    }
+
+    @Test
+    void wheelFarBehindReturnsEveryDueKeyInTickOrder() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, START);
+        wheel.schedule(3L, START + 700);
+        wheel.schedule(1L, START + 100);
+        wheel.schedule(2L, START + 400);
+        wheel.schedule(4L, START + 5_000);
+
+        // Three revolutions late
+        assertThat(wheel.advance(START + 2_500)).containsExactly(1L, 2L, 3L);
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(START + 5_000)).containsExactly(4L);
+    }
+
+    @Test
+    void tickAndSizeMustBePositive() {
+        assertThatThrownBy(() -> new TimingWheel<Long>(0, 8, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimingWheel<Long>(TICK, 0, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+}